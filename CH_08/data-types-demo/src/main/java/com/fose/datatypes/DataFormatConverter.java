@@ -1,13 +1,28 @@
 package com.fose.datatypes;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Demonstrates conversion between different data formats:
@@ -18,12 +33,19 @@ import java.util.Map;
  */
 public class DataFormatConverter {
     private final ObjectMapper objectMapper;
+    // Serializers are resolved once and reused for every customer written; no flush
+    // per customer, so the stream sees one write per filled buffer
+    private final ObjectWriter customerWriter;
+    private final ObjectReader customerReader;
     private final Yaml yaml;
 
     public DataFormatConverter() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.customerWriter = objectMapper.writerFor(Customer.class)
+                                          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.customerReader = objectMapper.readerFor(Customer.class);
         this.yaml = new Yaml();
     }
 
@@ -40,6 +62,31 @@ public class DataFormatConverter {
         }
     }
 
+    /**
+     * Write customers to {@code out} as one compact JSON array, for exports
+     * too large to hold in memory. Each customer is serialized straight into
+     * the generator's buffer, which is flushed to the stream whenever it
+     * fills, so memory stays bounded however many customers there are.
+     * The stream is flushed but left open.
+     *
+     * @return the number of customers written
+     */
+    public long writeJson(Iterator<Customer> customers, OutputStream out) {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            while (customers.hasNext()) {
+                customerWriter.writeValue(generator, customers.next());
+                count++;
+            }
+            generator.writeEndArray();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to write JSON", e);
+        }
+        return count;
+    }
+
     /**
      * Convert JSON string to Customer object
      */
@@ -51,6 +98,77 @@ public class DataFormatConverter {
         }
     }
 
+    /**
+     * Read a JSON array of customers from {@code in}, one customer at a time
+     * as the stream is consumed: only the parser's buffer and the current
+     * customer are in memory, however large the input. A consumer that stops
+     * pulling stops the reading. Malformed input fails when the stream
+     * reaches it, after the customers before it were returned.
+     *
+     * Close the returned stream to release the parser; {@code in} is left open.
+     */
+    public Stream<Customer> readJson(InputStream in) {
+        JsonParser parser;
+        try {
+            parser = objectMapper.getFactory().createParser(in);
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.close();
+                throw new IOException("Expected a JSON array of customers");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse JSON", e);
+        }
+
+        Iterator<Customer> customers = new Iterator<>() {
+            // Token starting the next element, read only when the consumer asks for it
+            private JsonToken next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = advance();
+                }
+                return next == JsonToken.START_OBJECT;
+            }
+
+            @Override
+            public Customer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Customer customer = customerReader.readValue(parser);
+                    next = null;
+                    return customer;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to parse JSON", e);
+                }
+            }
+
+            private JsonToken advance() {
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token != JsonToken.START_OBJECT && token != JsonToken.END_ARRAY) {
+                        throw new IOException("Expected a customer object but found " + token);
+                    }
+                    return token;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to parse JSON", e);
+                }
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(customers, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to close JSON parser", e);
+                }
+            });
+    }
+
     /**
      * Convert Customer to XML format
      * XML is more verbose but offers robust validation and namespaces
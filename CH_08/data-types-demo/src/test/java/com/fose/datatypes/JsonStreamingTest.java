@@ -0,0 +1,270 @@
+package com.fose.datatypes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streaming customers to and from JSON, with throughput and heap
+ * comparisons against converting whole documents at once.
+ */
+class JsonStreamingTest {
+    private static final int BENCHMARK_CUSTOMERS = Integer.getInteger("bench.customers", 200_000);
+    // Read through a pipe, so the input is never in memory as a whole
+    private static final int STREAMED_CUSTOMERS = BENCHMARK_CUSTOMERS * 5;
+
+    private DataFormatConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new DataFormatConverter();
+    }
+
+    @Test
+    void shouldWriteOneCompactArray() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = converter.writeJson(customers(3), out);
+
+        String json = out.toString(StandardCharsets.UTF_8);
+
+        assertEquals(3, written);
+        assertTrue(json.startsWith("[{\"id\":0,"), json);
+        assertFalse(json.contains("\n"), json);
+        assertTrue(json.contains("\"birthDate\":\"1980-01-01\""));
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Customer[] restored = mapper.readValue(json, Customer[].class);
+        assertEquals(List.of(customers(3).next(), customer(1), customer(2)), List.of(restored));
+        assertEquals(customer(2).getAddress(), restored[2].getAddress());
+    }
+
+    @Test
+    void shouldLeaveTheStreamOpen() {
+        CountingOutputStream out = new CountingOutputStream();
+        assertEquals(0, converter.writeJson(Collections.emptyIterator(), out));
+
+        assertEquals(2, out.bytes);
+        assertFalse(out.closed);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareStreamingAndPerCustomerJson() {
+        // Warm up both paths before measuring
+        writeWithToJson(new CountingOutputStream(), BENCHMARK_CUSTOMERS / 4);
+        converter.writeJson(customers(BENCHMARK_CUSTOMERS / 4), new CountingOutputStream());
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        CountingOutputStream perCustomer = new CountingOutputStream();
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        writeWithToJson(perCustomer, BENCHMARK_CUSTOMERS);
+        long perCustomerNanos = System.nanoTime() - start;
+        long perCustomerAllocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+
+        CountingOutputStream streamed = new CountingOutputStream();
+        allocated = threads.getThreadAllocatedBytes(threadId);
+        start = System.nanoTime();
+        converter.writeJson(customers(BENCHMARK_CUSTOMERS), streamed);
+        long streamedNanos = System.nanoTime() - start;
+        long streamedAllocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+
+        assertTrue(streamed.writes < BENCHMARK_CUSTOMERS / 10);
+        System.out.printf("%d customers: toJson per customer %.0fMB/s (%.1fMB, %.0f bytes allocated/customer), " +
+                          "writeJson %.0fMB/s (%.1fMB, %.0f bytes allocated/customer, %d stream writes)%n",
+            BENCHMARK_CUSTOMERS,
+            perCustomer.bytes / 1e6 / (perCustomerNanos / 1e9), perCustomer.bytes / 1e6,
+            (double) perCustomerAllocated / BENCHMARK_CUSTOMERS,
+            streamed.bytes / 1e6 / (streamedNanos / 1e9), streamed.bytes / 1e6,
+            (double) streamedAllocated / BENCHMARK_CUSTOMERS, streamed.writes);
+    }
+
+    @Test
+    void shouldReadCustomersBackOneAtATime() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.writeJson(customers(3), out);
+
+        List<Customer> restored;
+        try (Stream<Customer> stream = converter.readJson(new ByteArrayInputStream(out.toByteArray()))) {
+            restored = stream.toList();
+        }
+
+        assertEquals(List.of(customer(0), customer(1), customer(2)), restored);
+        assertEquals(customer(2).getAddress(), restored.get(2).getAddress());
+        assertEquals(customer(2).getBirthDate(), restored.get(2).getBirthDate());
+        try (Stream<Customer> stream = converter.readJson(new ByteArrayInputStream("[]".getBytes()))) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void shouldReadOnlyAsFarAsConsumed() {
+        String json = "[" + converter.toJson(customer(0)) + ", {\"id\": oops}]";
+        CloseTrackingInputStream in = new CloseTrackingInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        try (Stream<Customer> stream = converter.readJson(in)) {
+            Iterator<Customer> it = stream.iterator();
+            assertEquals(customer(0), it.next());
+            // The malformed element is only reached when asked for
+            assertThrows(RuntimeException.class, it::hasNext);
+        }
+        assertFalse(in.closed);
+
+        assertThrows(RuntimeException.class,
+            () -> converter.readJson(new ByteArrayInputStream(converter.toJson(customer(0)).getBytes())));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareStreamingAndWholeDocumentReads() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        // The whole-document alternative: the JSON as one String, bound to an array
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.writeJson(customers(BENCHMARK_CUSTOMERS), out);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        long baseline = usedHeapAfterGc(memory);
+        long start = System.nanoTime();
+        String document = out.toString(StandardCharsets.UTF_8);
+        Customer[] all = mapper.readValue(document, Customer[].class);
+        long wholeNanos = System.nanoTime() - start;
+        long wholeBytes = usedHeapAfterGc(memory) - baseline;
+        int documentBytes = out.size();
+        assertEquals(BENCHMARK_CUSTOMERS, all.length);
+        out = null;
+        document = null;
+        all = null;
+
+        PipedInputStream in = new PipedInputStream(64 * 1024);
+        PipedOutputStream pipe = new PipedOutputStream(in);
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try (pipe) {
+                converter.writeJson(customers(STREAMED_CUSTOMERS), pipe);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        baseline = usedHeapAfterGc(memory);
+        long streamedBytes = 0;
+        int streamed = 0;
+        start = System.nanoTime();
+        try (Stream<Customer> customers = converter.readJson(in)) {
+            for (Iterator<Customer> it = customers.iterator(); it.hasNext(); it.next()) {
+                if (++streamed % (STREAMED_CUSTOMERS / 4) == 0) {
+                    streamedBytes = Math.max(streamedBytes, usedHeapAfterGc(memory) - baseline);
+                }
+            }
+        }
+        long streamNanos = System.nanoTime() - start;
+        writer.join();
+
+        assertEquals(STREAMED_CUSTOMERS, streamed);
+        // Five times the input, still a fraction of what the whole-document read holds
+        assertTrue(streamedBytes < wholeBytes / 4);
+        // The streamed rate includes writing the input, which shares the CPU with the reader
+        System.out.printf("Whole document of %d customers (%.1fMB): %.0f customers/s, retains %.1fMB; " +
+                          "readJson over %d customers through a pipe: %.0f customers/s, retains at most %.1fMB%n",
+            BENCHMARK_CUSTOMERS, documentBytes / 1e6, BENCHMARK_CUSTOMERS / (wholeNanos / 1e9), wholeBytes / 1e6,
+            STREAMED_CUSTOMERS, streamed / (streamNanos / 1e9), Math.max(0, streamedBytes) / 1e6);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The per-customer alternative: a pretty-printed String each, joined into an array by hand
+     */
+    private void writeWithToJson(OutputStream out, int count) {
+        try {
+            out.write('[');
+            Iterator<Customer> it = customers(count);
+            while (it.hasNext()) {
+                out.write(converter.toJson(it.next()).getBytes(StandardCharsets.UTF_8));
+                if (it.hasNext()) {
+                    out.write(',');
+                }
+            }
+            out.write(']');
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Customers created as they are consumed, as they would be read from a database cursor
+     */
+    private static Iterator<Customer> customers(int count) {
+        return IntStream.range(0, count).mapToObj(JsonStreamingTest::customer).iterator();
+    }
+
+    private static Customer customer(int i) {
+        Address address = new Address(i + " Main Street", "Boston", "MA", "02108", "USA");
+        return new Customer((long) i, "First" + i, "Last" + i, "customer" + i + "@example.com",
+            LocalDate.of(1980, 1, 1).plusDays(i % 10_000), address);
+    }
+
+    private static class CloseTrackingInputStream extends ByteArrayInputStream {
+        boolean closed;
+
+        CloseTrackingInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Discards what is written, counting bytes and write calls
+     */
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+        long writes;
+        boolean closed;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            writes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            writes++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
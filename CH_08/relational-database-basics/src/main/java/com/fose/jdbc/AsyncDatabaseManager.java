@@ -0,0 +1,153 @@
+package com.fose.jdbc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over {@link DatabaseManager}.
+ *
+ * Each call runs on its own virtual thread, so independent queries can be
+ * fanned out and awaited together instead of one after another. A semaphore
+ * sized to the connection pool caps how many calls touch JDBC at once: extra
+ * calls park cheaply on their virtual thread rather than piling up inside
+ * Hikari and timing out. Unless a fixed bound is given, the semaphore follows
+ * {@link DatabaseManager#setMaximumPoolSize} resizes.
+ *
+ * Calls run on behalf of the thread that made them, so with read replicas an
+ * awaited write is followed by reads from the primary, as it would be if the
+ * caller had made both calls directly.
+ */
+public class AsyncDatabaseManager implements AutoCloseable {
+    private final DatabaseManager databaseManager;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ResizableSemaphore permits;
+    private final boolean followsPoolSize;
+    private volatile int maxConcurrentCalls;
+
+    /**
+     * Bounded by the pool size, now and after any resize
+     */
+    public AsyncDatabaseManager(DatabaseManager databaseManager) {
+        this(databaseManager, databaseManager.getMaximumPoolSize(), true);
+    }
+
+    /**
+     * Bounded by a fixed number of concurrent calls, e.g. a share of a pool used by other code too
+     */
+    public AsyncDatabaseManager(DatabaseManager databaseManager, int maxConcurrentCalls) {
+        this(databaseManager, maxConcurrentCalls, false);
+    }
+
+    private AsyncDatabaseManager(DatabaseManager databaseManager, int maxConcurrentCalls, boolean followsPoolSize) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("At least one concurrent call is required");
+        }
+        this.databaseManager = databaseManager;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.followsPoolSize = followsPoolSize;
+        this.permits = new ResizableSemaphore(maxConcurrentCalls);
+    }
+
+    public CompletableFuture<Long> createUser(String username, String email) {
+        return submit(() -> databaseManager.createUser(username, email));
+    }
+
+    public CompletableFuture<List<User>> findAllUsers() {
+        return submit(databaseManager::findAllUsers);
+    }
+
+    public CompletableFuture<Long> createPost(Long userId, String title, String content) {
+        return submit(() -> databaseManager.createPost(userId, title, content));
+    }
+
+    public CompletableFuture<List<Post>> findPostsByUserId(Long userId) {
+        return submit(() -> databaseManager.findPostsByUserId(userId));
+    }
+
+    public CompletableFuture<Long> createUserAndPost(String username, String email,
+                                                     String postTitle, String postContent) {
+        return submit(() -> databaseManager.createUserAndPost(username, email, postTitle, postContent));
+    }
+
+    /**
+     * Current bound on calls touching JDBC at once
+     */
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Calls currently holding a permit, i.e. using or waiting on a pooled connection
+     */
+    public int getInFlightCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * Calls parked while waiting for a permit
+     */
+    public int getQueuedCalls() {
+        return permits.getQueueLength();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        if (followsPoolSize) {
+            resizeToPool();
+        }
+        Supplier<T> onBehalfOfCaller = databaseManager.onBehalfOfCaller(call);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return onBehalfOfCaller.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Match the permits to the pool size. Shrinking takes effect as running
+     * calls release their permits; calls already holding one are not interrupted.
+     */
+    private synchronized void resizeToPool() {
+        int poolSize = databaseManager.getMaximumPoolSize();
+        if (poolSize > maxConcurrentCalls) {
+            permits.release(poolSize - maxConcurrentCalls);
+        } else if (poolSize < maxConcurrentCalls) {
+            permits.reducePermits(maxConcurrentCalls - poolSize);
+        }
+        maxConcurrentCalls = poolSize;
+    }
+
+    /**
+     * Stop accepting calls; running calls are allowed to finish
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Exposes {@link Semaphore#reducePermits}, which is protected
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
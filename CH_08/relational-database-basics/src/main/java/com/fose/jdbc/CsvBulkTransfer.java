@@ -0,0 +1,354 @@
+package com.fose.jdbc;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streaming CSV import and export for the users and posts tables.
+ *
+ * Import runs as a two-stage pipeline: a parser thread turns CSV records into
+ * fixed-size batches and hands them over a small bounded queue to the writer,
+ * which executes them as JDBC batches in a single transaction. An import
+ * either loads the whole file or, on a bad record or failed insert, rolls back
+ * and leaves the table as it was. Export reads a forward-only result set and
+ * writes each row as it arrives. Neither side holds more than a few batches in
+ * memory, whatever the file size.
+ *
+ * Rows keep their ids so that posts still point at the right users after a
+ * migration; the identity columns are moved past the imported ids afterwards.
+ * An unquoted empty field is SQL NULL and a quoted one ({@code ""}) an empty
+ * string, so an export imports back with its nulls intact.
+ */
+class CsvBulkTransfer {
+    static final String USERS_HEADER = "id,username,email,created_at";
+    static final String POSTS_HEADER = "id,user_id,title,content,published_at";
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int FETCH_SIZE = 1_000;
+    private static final List<String[]> END_OF_INPUT = new ArrayList<>();
+
+    private final DataSource dataSource;
+
+    CsvBulkTransfer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    long importUsers(Reader in) {
+        String sql = "INSERT INTO users (id, username, email, created_at) VALUES (?, ?, ?, CAST(? AS TIMESTAMP))";
+        long rows = importRows(in, USERS_HEADER, sql, (stmt, record) -> {
+            stmt.setLong(1, Long.parseLong(record[0]));
+            stmt.setString(2, record[1]);
+            stmt.setString(3, record[2]);
+            stmt.setObject(4, parseTimestamp(record[3]));
+        });
+        restartIdentity("users");
+        return rows;
+    }
+
+    long importPosts(Reader in) {
+        String sql = "INSERT INTO posts (id, user_id, title, content, published_at) " +
+                     "VALUES (?, ?, ?, ?, CAST(? AS TIMESTAMP))";
+        long rows = importRows(in, POSTS_HEADER, sql, (stmt, record) -> {
+            stmt.setLong(1, Long.parseLong(record[0]));
+            stmt.setObject(2, record[1] == null ? null : Long.valueOf(record[1]), Types.BIGINT);
+            stmt.setString(3, record[2]);
+            stmt.setString(4, record[3]);
+            stmt.setObject(5, parseTimestamp(record[4]));
+        });
+        restartIdentity("posts");
+        return rows;
+    }
+
+    long exportUsers(Writer out) {
+        String query = "SELECT id, username, email, created_at FROM users ORDER BY id";
+        return exportRows(out, USERS_HEADER, query, (rs, fields) -> {
+            fields[0] = Long.toString(rs.getLong(1));
+            fields[1] = rs.getString(2);
+            fields[2] = rs.getString(3);
+            fields[3] = formatTimestamp(rs.getObject(4, LocalDateTime.class));
+        });
+    }
+
+    long exportPosts(Writer out) {
+        String query = "SELECT id, user_id, title, content, published_at FROM posts ORDER BY id";
+        return exportRows(out, POSTS_HEADER, query, (rs, fields) -> {
+            fields[0] = Long.toString(rs.getLong(1));
+            Long userId = rs.getObject(2, Long.class);
+            fields[1] = userId == null ? null : userId.toString();
+            fields[2] = rs.getString(3);
+            fields[3] = rs.getString(4);
+            fields[4] = formatTimestamp(rs.getObject(5, LocalDateTime.class));
+        });
+    }
+
+    private long importRows(Reader in, String header, String sql, RowBinder binder) {
+        int columns = header.split(",").length;
+        BlockingQueue<List<String[]>> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        CsvParser parser = new CsvParser(in, header, columns, batches);
+        Thread parserThread = new Thread(parser, "csv-parser");
+        parserThread.setDaemon(true);
+        parserThread.start();
+
+        long rows = 0;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                List<String[]> batch;
+                while ((batch = batches.take()) != END_OF_INPUT) {
+                    for (String[] record : batch) {
+                        binder.bind(stmt, record);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    rows += batch.size();
+                }
+                // The parser stops at the first bad record; keep none of the file
+                if (parser.failure != null) {
+                    throw new IllegalArgumentException("Failed to parse CSV after " + rows + " rows",
+                                                       parser.failure);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Bulk import rolled back after " + rows + " rows", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Bulk import interrupted and rolled back after " + rows + " rows", e);
+        } finally {
+            // Unblocks the parser if the writer gave up early
+            parserThread.interrupt();
+        }
+
+        return rows;
+    }
+
+    private long exportRows(Writer out, String header, String query, RowReader reader) {
+        int columns = header.split(",").length;
+        String[] fields = new String[columns];
+        long rows = 0;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query,
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            BufferedWriter writer = out instanceof BufferedWriter bw ? bw : new BufferedWriter(out);
+            writer.write(header);
+            writer.write('\n');
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reader.read(rs, fields);
+                    writeRecord(writer, fields);
+                    rows++;
+                }
+            }
+            writer.flush();
+        } catch (SQLException e) {
+            throw new RuntimeException("Bulk export failed after " + rows + " rows", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write CSV after " + rows + " rows", e);
+        }
+        return rows;
+    }
+
+    /**
+     * Identity columns do not advance for explicit ids, so move them past the imported rows
+     */
+    private void restartIdentity(String table) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            long next;
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                rs.next();
+                next = rs.getLong(1);
+            }
+            stmt.executeUpdate("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to restart identity for " + table, e);
+        }
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    private static String formatTimestamp(LocalDateTime value) {
+        return value == null ? null : value.toString();
+    }
+
+    static void writeRecord(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(writer, fields[i]);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Null is written as nothing at all; an empty string is quoted to tell it apart
+     */
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = value.isEmpty();
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement stmt, String[] record) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        void read(ResultSet rs, String[] fields) throws SQLException;
+    }
+
+    /**
+     * RFC 4180 parser that feeds batches of records into a bounded queue
+     */
+    private static class CsvParser implements Runnable {
+        private final BufferedReader reader;
+        private final String header;
+        private final int columns;
+        private final BlockingQueue<List<String[]>> batches;
+        private final StringBuilder field = new StringBuilder();
+        private volatile Exception failure;
+
+        CsvParser(Reader in, String header, int columns, BlockingQueue<List<String[]>> batches) {
+            this.reader = in instanceof BufferedReader br ? br : new BufferedReader(in, 64 * 1024);
+            this.header = header;
+            this.columns = columns;
+            this.batches = batches;
+        }
+
+        @Override
+        public void run() {
+            try {
+                String[] first = readRecord();
+                if (first != null && !header.equals(String.join(",", first))) {
+                    throw new IllegalArgumentException("Expected CSV header '" + header + "'");
+                }
+                List<String[]> batch = new ArrayList<>(BATCH_SIZE);
+                String[] record;
+                while ((record = readRecord()) != null) {
+                    batch.add(record);
+                    if (batch.size() == BATCH_SIZE) {
+                        batches.put(batch);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    batches.put(batch);
+                }
+            } catch (InterruptedException e) {
+                // Writer stopped early, nothing left to do
+                return;
+            } catch (Exception e) {
+                failure = e;
+            }
+            try {
+                batches.put(END_OF_INPUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Read one record, or null at end of input. Unquoted empty fields are null.
+         */
+        private String[] readRecord() throws IOException {
+            int c = reader.read();
+            while (c == '\r' || c == '\n') {
+                c = reader.read();
+            }
+            if (c == -1) {
+                return null;
+            }
+
+            String[] record = new String[columns];
+            int index = 0;
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            field.setLength(0);
+
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',' || c == '\n' || c == '\r' || c == -1) {
+                    if (index == columns) {
+                        throw new IllegalArgumentException("Expected " + columns + " columns per record");
+                    }
+                    record[index++] = field.isEmpty() && !wasQuoted ? null : field.toString();
+                    field.setLength(0);
+                    wasQuoted = false;
+                    if (c != ',') {
+                        break;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+
+            if (index != columns) {
+                throw new IllegalArgumentException("Expected " + columns + " columns per record, got " + index);
+            }
+            return record;
+        }
+    }
+}
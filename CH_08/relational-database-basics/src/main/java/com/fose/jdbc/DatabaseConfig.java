@@ -0,0 +1,141 @@
+package com.fose.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for a {@link DatabaseManager}, in the same setter style as HikariConfig.
+ *
+ * Only the primary JDBC URL is required; everything else has a sensible default.
+ */
+public class DatabaseConfig {
+    private String jdbcUrl;
+    private int maximumPoolSize = DatabaseManager.DEFAULT_MAXIMUM_POOL_SIZE;
+    private final List<String> replicaUrls = new ArrayList<>();
+    private Duration readYourWritesWindow = Duration.ZERO;
+    private int idBlockSize;
+    private boolean queryMetricsEnabled;
+    private Duration slowQueryThreshold;
+    private boolean monthlyPostPartitions;
+
+    public DatabaseConfig() {
+    }
+
+    public DatabaseConfig(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    /**
+     * URL of the primary, which receives every write
+     */
+    public void setJdbcUrl(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * Pool size used for the primary and for each replica
+     */
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public List<String> getReplicaUrls() {
+        return List.copyOf(replicaUrls);
+    }
+
+    /**
+     * Read replicas; read-only queries are spread across them round-robin
+     */
+    public void addReplicaUrl(String replicaUrl) {
+        this.replicaUrls.add(replicaUrl);
+    }
+
+    public Duration getReadYourWritesWindow() {
+        return readYourWritesWindow;
+    }
+
+    /**
+     * How long reads from a thread stay on the primary after that thread wrote.
+     * Covers replication lag so callers see their own writes; zero disables it.
+     */
+    public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    public int getIdBlockSize() {
+        return idBlockSize;
+    }
+
+    /**
+     * Assign user and post ids client-side from blocks of this many ids
+     * reserved in one sequence call (see {@link HiLoIdAllocator}).
+     * Zero, the default, leaves id generation to the database.
+     */
+    public void setIdBlockSize(int idBlockSize) {
+        this.idBlockSize = idBlockSize;
+    }
+
+    public boolean isQueryMetricsEnabled() {
+        return queryMetricsEnabled;
+    }
+
+    /**
+     * Time every statement and count its rows, see {@link DatabaseManager#getQueryMetrics()}
+     */
+    public void setQueryMetricsEnabled(boolean queryMetricsEnabled) {
+        this.queryMetricsEnabled = queryMetricsEnabled;
+    }
+
+    public Duration getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    /**
+     * Log statements taking at least this long, with bind values redacted.
+     * Turns on query metrics; null, the default, disables the log.
+     */
+    public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    public boolean isMonthlyPostPartitions() {
+        return monthlyPostPartitions;
+    }
+
+    /**
+     * Store posts in one table per month behind a {@code posts} view, so
+     * time-range reads only touch the months they cover and old months can be
+     * archived. Applies to new schemas; full-text search and CSV import of
+     * posts are not available in this mode.
+     */
+    public void setMonthlyPostPartitions(boolean monthlyPostPartitions) {
+        this.monthlyPostPartitions = monthlyPostPartitions;
+    }
+
+    void validate() {
+        if (jdbcUrl == null || jdbcUrl.isBlank()) {
+            throw new IllegalArgumentException("jdbcUrl is required");
+        }
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        if (readYourWritesWindow == null || readYourWritesWindow.isNegative()) {
+            throw new IllegalArgumentException("Read-your-writes window must not be negative");
+        }
+        if (idBlockSize < 0) {
+            throw new IllegalArgumentException("Id block size must not be negative");
+        }
+        if (slowQueryThreshold != null && slowQueryThreshold.isNegative()) {
+            throw new IllegalArgumentException("Slow query threshold must not be negative");
+        }
+    }
+}
@@ -4,57 +4,206 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 /**
  * Demonstrates direct database access using JDBC.
  * This is the example from Chapter 8 showing low-level database operations.
  */
 public class DatabaseManager {
+    public static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+
+    // Partitions have no identity column, so their post ids always come from an allocator
+    private static final int PARTITIONED_POST_ID_BLOCK_SIZE = 100;
+    // Never write-locked: without partitions nothing renames the table posts are inserted into
+    private static final Lock UNPARTITIONED_INSERTS = new ReentrantReadWriteLock().readLock();
+
     private final DataSource dataSource;
+    private final PoolMetrics poolMetrics = new PoolMetrics();
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+    private final List<PoolMetrics> replicaPoolMetrics = new ArrayList<>();
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+    private final ReplicaRouter router;
+    private final HiLoIdAllocator userIds;
+    private final HiLoIdAllocator postIds;
+    private final PostPartitions partitions;
 
     public DatabaseManager(String jdbcUrl) {
+        this(jdbcUrl, DEFAULT_MAXIMUM_POOL_SIZE);
+    }
+
+    public DatabaseManager(String jdbcUrl, int maximumPoolSize) {
+        this(singlePool(jdbcUrl, maximumPoolSize));
+    }
+
+    /**
+     * Primary plus optional read replicas. Writes and transactions always use
+     * the primary; read-only queries are routed to the replicas.
+     */
+    public DatabaseManager(DatabaseConfig databaseConfig) {
+        databaseConfig.validate();
+        this.dataSource = createPool(databaseConfig.getJdbcUrl(), databaseConfig.getMaximumPoolSize(), poolMetrics);
+
+        boolean instrumented = databaseConfig.isQueryMetricsEnabled() || databaseConfig.getSlowQueryThreshold() != null;
+        SlowQueryLog slowQueryLog = databaseConfig.getSlowQueryThreshold() != null
+            ? new SlowQueryLog(databaseConfig.getSlowQueryThreshold())
+            : null;
+        DataSource primary = instrumented
+            ? InstrumentedDataSource.wrap(dataSource, queryMetrics, slowQueryLog)
+            : dataSource;
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : databaseConfig.getReplicaUrls()) {
+            PoolMetrics metrics = new PoolMetrics();
+            HikariDataSource replica = createPool(replicaUrl, databaseConfig.getMaximumPoolSize(), metrics);
+            replicaPools.add(replica);
+            replicaPoolMetrics.add(metrics);
+            replicas.add(instrumented ? InstrumentedDataSource.wrap(replica, queryMetrics, slowQueryLog) : replica);
+        }
+        this.router = new ReplicaRouter(primary, replicas, databaseConfig.getReadYourWritesWindow());
+
+        this.partitions = databaseConfig.isMonthlyPostPartitions() ? new PostPartitions(primary) : null;
+
+        int idBlockSize = databaseConfig.getIdBlockSize();
+        int postIdBlockSize = idBlockSize == 0 && partitions != null ? PARTITIONED_POST_ID_BLOCK_SIZE : idBlockSize;
+        this.userIds = idBlockSize > 0 ? new HiLoIdAllocator(primary, "users", idBlockSize) : null;
+        this.postIds = postIdBlockSize > 0 ? new HiLoIdAllocator(primary, "posts", postIdBlockSize) : null;
+    }
+
+    private static DatabaseConfig singlePool(String jdbcUrl, int maximumPoolSize) {
+        DatabaseConfig databaseConfig = new DatabaseConfig(jdbcUrl);
+        databaseConfig.setMaximumPoolSize(maximumPoolSize);
+        return databaseConfig;
+    }
+
+    private static HikariDataSource createPool(String jdbcUrl, int maximumPoolSize, PoolMetrics metrics) {
         // HikariCP connection pool configuration (from the chapter)
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(jdbcUrl);
-        config.setMaximumPoolSize(10);
-        this.dataSource = new HikariDataSource(config);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMetricsTrackerFactory(metrics);
+        HikariDataSource hikariDataSource = new HikariDataSource(config);
+        metrics.attach(hikariDataSource);
+        return hikariDataSource;
+    }
+
+    /**
+     * Live pool statistics: active/idle/pending connections and acquire times
+     */
+    public PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    /**
+     * Pool statistics for each read replica, in configuration order
+     */
+    public List<PoolMetrics> getReplicaPoolMetrics() {
+        return List.copyOf(replicaPoolMetrics);
+    }
+
+    /**
+     * Per-statement latency, row counts and connection acquire times.
+     * Empty unless query metrics or the slow-query log are enabled in {@link DatabaseConfig}.
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    public int getMaximumPoolSize() {
+        return ((HikariDataSource) dataSource).getMaximumPoolSize();
+    }
+
+    /**
+     * Resize the pools at runtime, e.g. to the knee reported by {@link PoolSizingHarness}.
+     * Hikari grows or retires connections in the background.
+     */
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        List<HikariDataSource> pools = new ArrayList<>(replicaPools);
+        pools.add((HikariDataSource) dataSource);
+        for (HikariDataSource pool : pools) {
+            pool.getHikariConfigMXBean().setMinimumIdle(maximumPoolSize);
+            pool.getHikariConfigMXBean().setMaximumPoolSize(maximumPoolSize);
+        }
+    }
+
+    /**
+     * Wrap {@code call} to run on another thread on behalf of the current one:
+     * reads after the caller's writes, in either thread, stay on the primary
+     * for the read-your-writes window
+     */
+    <T> Supplier<T> onBehalfOfCaller(Supplier<T> call) {
+        return router.inSession(call);
     }
 
     /**
      * Initialize database schema
      */
     public void initializeSchema() {
+        initializeSchema(1, 1);
+    }
+
+    /**
+     * Initialize the schema with ids starting at {@code idStart} and stepping by
+     * {@code idIncrement}, so that shards of a {@link ShardedDatabaseManager}
+     * generate disjoint ids
+     */
+    void initializeSchema(long idStart, long idIncrement) {
+        String identity = "BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH %d INCREMENT BY %d)"
+            .formatted(idStart, idIncrement);
+
         // SQL from the chapter - creating tables with relationships
         String createUserTable = """
             CREATE TABLE IF NOT EXISTS users (
-                id IDENTITY PRIMARY KEY,
+                id %s PRIMARY KEY,
                 username VARCHAR(50) UNIQUE NOT NULL,
                 email VARCHAR(100) UNIQUE NOT NULL,
                 created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
             )
-            """;
+            """.formatted(identity);
 
         String createPostTable = """
             CREATE TABLE IF NOT EXISTS posts (
-                id IDENTITY PRIMARY KEY,
+                id %s PRIMARY KEY,
                 user_id BIGINT REFERENCES users(id),
                 title VARCHAR(200) NOT NULL,
                 content TEXT NOT NULL,
                 published_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
             )
-            """;
+            """.formatted(identity);
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = router.forWrite().getConnection();
              Statement stmt = conn.createStatement()) {
             stmt.executeUpdate(createUserTable);
-            stmt.executeUpdate(createPostTable);
+            if (partitions == null) {
+                stmt.executeUpdate(createPostTable);
+            }
+            stmt.executeUpdate(UserPostStatsTable.CREATE_TABLE);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize schema", e);
         }
+
+        if (partitions != null) {
+            partitions.initialize();
+        }
+        if (userIds != null) {
+            userIds.initialize();
+        }
+        if (postIds != null) {
+            postIds.initialize();
+        }
     }
 
     /**
@@ -62,11 +211,38 @@ public class DatabaseManager {
      * Prepared statements are safer and more efficient than string concatenation.
      */
     public Long createUser(String username, String email) {
-        String sql = "INSERT INTO users (username, email) VALUES (?, ?)";
+        try (Connection conn = router.forWrite().getConnection()) {
+            // The user and their stats row are created together
+            conn.setAutoCommit(false);
+            try {
+                long userId = insertUser(conn, username, email);
+                UserPostStatsTable.insertForNewUser(conn, userId, 0, null);
+                conn.commit();
+                return userId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create user", e);
+        }
+    }
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    private long insertUser(Connection conn, String username, String email) throws SQLException {
+        if (userIds != null) {
+            long id = userIds.nextId(conn);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO users (id, username, email) VALUES (?, ?, ?)")) {
+                pstmt.setLong(1, id);
+                pstmt.setString(2, username);
+                pstmt.setString(3, email);
+                pstmt.executeUpdate();
+            }
+            return id;
+        }
 
+        String sql = "INSERT INTO users (username, email) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, username);
             pstmt.setString(2, email);
             pstmt.executeUpdate();
@@ -78,8 +254,6 @@ public class DatabaseManager {
                 }
                 throw new SQLException("Failed to get generated ID");
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to create user", e);
         }
     }
 
@@ -88,40 +262,126 @@ public class DatabaseManager {
      */
     public List<User> findAllUsers() {
         String query = "SELECT id, username, email, created_at FROM users ORDER BY created_at DESC";
-        List<User> users = new ArrayList<>();
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = router.forRead().getConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                User user = new User(
-                    rs.getLong("id"),
-                    rs.getString("username"),
-                    rs.getString("email"),
-                    rs.getTimestamp("created_at").toLocalDateTime()
-                );
-                users.add(user);
-            }
+            // Columns are resolved once per query, then read by position
+            return RowMappers.mapAll(rs, RowMappers.USER);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find users", e);
         }
+    }
 
-        return users;
+    /**
+     * Scan every user into primitive column arrays, for analytics that would
+     * otherwise allocate a User and a LocalDateTime per row
+     */
+    public UserColumns scanUsersColumnar() {
+        String query = "SELECT id, username, email, " +
+                      "DATEDIFF('MILLISECOND', TIMESTAMP '1970-01-01 00:00:00', created_at) " +
+                      "FROM users ORDER BY id";
+        UserColumns columns = new UserColumns();
+
+        try (Connection conn = router.forRead().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setFetchSize(1_000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                columns.fill(rs);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to scan users", e);
+        }
+
+        return columns;
     }
 
     /**
      * Create a post for a user
      */
     public Long createPost(Long userId, String title, String content) {
-        String sql = "INSERT INTO posts (user_id, title, content) VALUES (?, ?, ?)";
+        return createPost(userId, title, content, null);
+    }
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    /**
+     * Create a post with an explicit publication time, e.g. when migrating old posts
+     *
+     * @param publishedAt null for the current time
+     */
+    public Long createPost(Long userId, String title, String content, LocalDateTime publishedAt) {
+        LocalDateTime published = resolvePublishedAt(publishedAt);
+        Lock insertLock = postInsertLock();
+        insertLock.lock();
+        try {
+            String table = postTable(published);
+            try (Connection conn = router.forWrite().getConnection()) {
+                // The post and the author's updated stats commit together
+                conn.setAutoCommit(false);
+                try {
+                    long postId = insertPost(conn, table, userId, title, content, published);
+                    UserPostStatsTable.recordPost(conn, userId, published);
+                    conn.commit();
+                    return postId;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to create post", e);
+            }
+        } finally {
+            insertLock.unlock();
+        }
+    }
 
+    /**
+     * Posts without an explicit time normally get the database's timestamp; with
+     * partitions the time is fixed up front because it decides the table
+     */
+    private LocalDateTime resolvePublishedAt(LocalDateTime publishedAt) {
+        return publishedAt == null && partitions != null ? LocalDateTime.now() : publishedAt;
+    }
+
+    /**
+     * Resolved before the inserting transaction starts, as creating a partition
+     * is DDL, and under {@link #postInsertLock()}
+     */
+    private String postTable(LocalDateTime publishedAt) {
+        return partitions != null ? partitions.tableFor(publishedAt) : "posts";
+    }
+
+    /**
+     * Held from resolving the post table until the insert commits, so archiving
+     * cannot rename the partition in between
+     */
+    private Lock postInsertLock() {
+        return partitions != null ? partitions.insertLock() : UNPARTITIONED_INSERTS;
+    }
+
+    private long insertPost(Connection conn, String table, long userId, String title, String content,
+                            LocalDateTime publishedAt) throws SQLException {
+        String insert = "INSERT INTO " + table + " (user_id, title, content, published_at";
+        String values = ") VALUES (?, ?, ?, COALESCE(CAST(? AS TIMESTAMP), LOCALTIMESTAMP)";
+
+        if (postIds != null) {
+            long id = postIds.nextId(conn);
+            try (PreparedStatement pstmt = conn.prepareStatement(insert + ", id" + values + ", ?)")) {
+                pstmt.setLong(1, userId);
+                pstmt.setString(2, title);
+                pstmt.setString(3, content);
+                pstmt.setObject(4, publishedAt);
+                pstmt.setLong(5, id);
+                pstmt.executeUpdate();
+            }
+            return id;
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(insert + values + ")", Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setLong(1, userId);
             pstmt.setString(2, title);
             pstmt.setString(3, content);
+            pstmt.setObject(4, publishedAt);
             pstmt.executeUpdate();
 
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
@@ -130,8 +390,6 @@ public class DatabaseManager {
                 }
                 throw new SQLException("Failed to get generated ID");
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to create post", e);
         }
     }
 
@@ -141,83 +399,391 @@ public class DatabaseManager {
     public List<Post> findPostsByUserId(Long userId) {
         String query = "SELECT id, user_id, title, content, published_at FROM posts " +
                       "WHERE user_id = ? ORDER BY published_at DESC";
-        List<Post> posts = new ArrayList<>();
 
-        try (Connection conn = dataSource.getConnection();
+        try (Connection conn = router.forRead().getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setLong(1, userId);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Post post = new Post(
-                        rs.getLong("id"),
-                        rs.getLong("user_id"),
-                        rs.getString("title"),
-                        rs.getString("content"),
-                        rs.getTimestamp("published_at").toLocalDateTime()
-                    );
-                    posts.add(post);
-                }
+                return RowMappers.mapAll(rs, RowMappers.POST);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find posts", e);
         }
+    }
+
+    /**
+     * Find the id, title and publication time of a user's posts, newest first,
+     * without reading their content
+     */
+    public List<PostSummary> findPostSummariesByUserId(Long userId) {
+        String query = "SELECT id, title, published_at FROM posts " +
+                      "WHERE user_id = ? ORDER BY published_at DESC";
+
+        try (Connection conn = router.forRead().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
 
-        return posts;
+            stmt.setLong(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.mapAll(rs, RowMappers.POST_SUMMARY);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find post summaries", e);
+        }
+    }
+
+    /**
+     * Find posts by user ID, deferring their content: the first
+     * {@link Post#getContent()} on any of them fetches the content of all
+     * of them in one query
+     */
+    public List<Post> findPostsByUserIdLazily(Long userId) {
+        String query = "SELECT id, user_id, title, published_at FROM posts " +
+                      "WHERE user_id = ? ORDER BY published_at DESC";
+
+        try (Connection conn = router.forRead().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            stmt.setLong(1, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return new PostContentLoader(router.forRead()).mapAll(rs);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find posts", e);
+        }
+    }
+
+    /**
+     * Find a user's posts published in [from, to), newest first. With monthly
+     * partitions only the partitions overlapping the range are read.
+     */
+    public List<Post> findPostsByUserId(Long userId, LocalDateTime from, LocalDateTime to) {
+        String where = "user_id = ? AND published_at >= ? AND published_at < ?";
+        List<String> tables = partitions != null ? partitions.tablesOverlapping(from, to) : List.of("posts");
+        if (tables.isEmpty()) {
+            return List.of();
+        }
+
+        try (Connection conn = router.forRead().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PostPartitions.unionQuery(tables, where))) {
+
+            int index = 1;
+            for (int i = 0; i < tables.size(); i++) {
+                stmt.setLong(index++, userId);
+                stmt.setObject(index++, from);
+                stmt.setObject(index++, to);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.mapAll(rs, RowMappers.POST);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find posts", e);
+        }
+    }
+
+    /**
+     * Months that currently have a live post partition, oldest first
+     */
+    public List<YearMonth> getPostPartitions() {
+        return partitions != null ? partitions.getMonths() : List.of();
+    }
+
+    /**
+     * Move every post partition older than {@code cutoff} out of the live
+     * {@code posts} view into {@code posts_archive_yyyyMM} tables. Post stats
+     * are rebuilt to match the remaining posts.
+     *
+     * @return the archive table names
+     */
+    public List<String> archivePostPartitionsBefore(YearMonth cutoff) {
+        requirePartitions(true, "Archiving");
+        List<String> archived = partitions.archiveBefore(cutoff);
+        if (!archived.isEmpty()) {
+            rebuildUserPostStats();
+        }
+        return archived;
+    }
+
+    private void requirePartitions(boolean enabled, String operation) {
+        if ((partitions != null) != enabled) {
+            throw new IllegalStateException(operation + (enabled ? " requires" : " is not supported with") +
+                                            " monthly post partitions");
+        }
     }
 
     /**
      * Demonstrates a transaction - both operations succeed or both fail.
      * This is the example from the chapter showing proper transaction handling.
+     *
+     * @return the id of the new user
      */
-    public void createUserAndPost(String username, String email, String postTitle, String postContent) {
-        try (Connection conn = dataSource.getConnection()) {
-            conn.setAutoCommit(false);
+    public Long createUserAndPost(String username, String email, String postTitle, String postContent) {
+        LocalDateTime publishedAt = resolvePublishedAt(null);
+        Lock insertLock = postInsertLock();
+        insertLock.lock();
+        try {
+            String table = postTable(publishedAt);
+            try (Connection conn = router.forWrite().getConnection()) {
+                conn.setAutoCommit(false);
 
-            try {
-                // First operation: create user
-                Long userId;
-                String insertUser = "INSERT INTO users (username, email) VALUES (?, ?)";
-                try (PreparedStatement pstmt = conn.prepareStatement(insertUser, Statement.RETURN_GENERATED_KEYS)) {
-                    pstmt.setString(1, username);
-                    pstmt.setString(2, email);
-                    pstmt.executeUpdate();
-
-                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                        if (rs.next()) {
-                            userId = rs.getLong(1);
-                        } else {
-                            throw new SQLException("Failed to get user ID");
-                        }
+                try {
+                    // First operation: create user
+                    long userId = insertUser(conn, username, email);
+
+                    // Second operation: create post
+                    insertPost(conn, table, userId, postTitle, postContent, publishedAt);
+                    UserPostStatsTable.insertForNewUser(conn, userId, 1, publishedAt);
+
+                    // Both succeeded - commit the transaction
+                    conn.commit();
+                    return userId;
+                } catch (SQLException e) {
+                    // Something failed - rollback everything
+                    conn.rollback();
+                    throw new RuntimeException("Transaction failed", e);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Database connection failed", e);
+            }
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    /**
+     * Create many users, each with a first post, in one transaction using one
+     * JDBC batch for the users and one for the posts. With an id block size
+     * configured, ids are assigned up front and no generated keys are read back.
+     *
+     * @return the new user ids, in input order
+     */
+    public List<Long> createUsersAndPosts(List<NewUserPost> newUserPosts) {
+        if (newUserPosts.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime publishedAt = resolvePublishedAt(null);
+        Lock insertLock = postInsertLock();
+        insertLock.lock();
+        try {
+            String table = postTable(publishedAt);
+            try (Connection conn = router.forWrite().getConnection()) {
+                conn.setAutoCommit(false);
+
+                try {
+                    long[] ids = userIds != null
+                        ? insertUsersWithIds(conn, newUserPosts)
+                        : insertUsersWithGeneratedKeys(conn, newUserPosts);
+                    insertPosts(conn, table, newUserPosts, ids, publishedAt);
+                    UserPostStatsTable.insertForNewUsers(conn, ids, 1, publishedAt);
+
+                    conn.commit();
+                    List<Long> result = new ArrayList<>(ids.length);
+                    for (long id : ids) {
+                        result.add(id);
                     }
+                    return result;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new RuntimeException("Batch transaction failed", e);
                 }
+            } catch (SQLException e) {
+                throw new RuntimeException("Database connection failed", e);
+            }
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    private long[] insertUsersWithIds(Connection conn, List<NewUserPost> newUserPosts) throws SQLException {
+        long[] ids = userIds.nextIds(conn, newUserPosts.size());
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO users (id, username, email) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < ids.length; i++) {
+                pstmt.setLong(1, ids[i]);
+                pstmt.setString(2, newUserPosts.get(i).getUsername());
+                pstmt.setString(3, newUserPosts.get(i).getEmail());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        return ids;
+    }
+
+    private long[] insertUsersWithGeneratedKeys(Connection conn, List<NewUserPost> newUserPosts) throws SQLException {
+        long[] ids = new long[newUserPosts.size()];
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO users (username, email) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (NewUserPost newUserPost : newUserPosts) {
+                pstmt.setString(1, newUserPost.getUsername());
+                pstmt.setString(2, newUserPost.getEmail());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
 
-                // Second operation: create post
-                String insertPost = "INSERT INTO posts (user_id, title, content) VALUES (?, ?, ?)";
-                try (PreparedStatement pstmt = conn.prepareStatement(insertPost)) {
-                    pstmt.setLong(1, userId);
-                    pstmt.setString(2, postTitle);
-                    pstmt.setString(3, postContent);
-                    pstmt.executeUpdate();
+            // Keys come back in the order the rows were added
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length; i++) {
+                    if (!rs.next()) {
+                        throw new SQLException("Failed to get user ID");
+                    }
+                    ids[i] = rs.getLong(1);
                 }
+            }
+        }
+        return ids;
+    }
 
-                // Both succeeded - commit the transaction
-                conn.commit();
-            } catch (SQLException e) {
-                // Something failed - rollback everything
-                conn.rollback();
-                throw new RuntimeException("Transaction failed", e);
+    private void insertPosts(Connection conn, String table, List<NewUserPost> newUserPosts, long[] ids,
+                             LocalDateTime publishedAt) throws SQLException {
+        long[] ownIds = postIds != null ? postIds.nextIds(conn, ids.length) : null;
+        String sql = "INSERT INTO " + table + " (user_id, title, content, published_at" +
+                     (ownIds != null ? ", id" : "") +
+                     ") VALUES (?, ?, ?, COALESCE(CAST(? AS TIMESTAMP), LOCALTIMESTAMP)" +
+                     (ownIds != null ? ", ?" : "") + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.length; i++) {
+                pstmt.setLong(1, ids[i]);
+                pstmt.setString(2, newUserPosts.get(i).getPostTitle());
+                pstmt.setString(3, newUserPosts.get(i).getPostContent());
+                pstmt.setObject(4, publishedAt);
+                if (ownIds != null) {
+                    pstmt.setLong(5, ownIds[i]);
+                }
+                pstmt.addBatch();
             }
-        } catch (SQLException e) {
-            throw new RuntimeException("Database connection failed", e);
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Post count and latest post time of a user, read from the summary table
+     * instead of aggregating their posts
+     */
+    public UserPostStats getUserPostStats(Long userId) {
+        return UserPostStatsTable.find(router.forRead(), userId);
+    }
+
+    /**
+     * Users with the most posts, for dashboards. Reads one row per user.
+     */
+    public List<UserPostStats> findMostActiveUsers(int limit) {
+        return UserPostStatsTable.findMostActive(router.forRead(), limit);
+    }
+
+    /**
+     * Recompute the post stats of every user from the posts table, e.g. after
+     * rows were loaded without going through this class
+     *
+     * @return the number of users
+     */
+    public int rebuildUserPostStats() {
+        return UserPostStatsTable.rebuild(router.forWrite());
+    }
+
+    /**
+     * Compare the post stats against the posts table on the primary
+     *
+     * @return ids of users whose stats are wrong or missing; empty when consistent
+     */
+    public List<Long> verifyUserPostStats() {
+        return UserPostStatsTable.verify(router.forWrite());
+    }
+
+    /**
+     * The primary, for tests that set up or bulk-load data with plain SQL around this class
+     */
+    DataSource writeDataSource() {
+        return router.forWrite();
+    }
+
+    /**
+     * Bulk-load users from CSV ({@value CsvBulkTransfer#USERS_HEADER}), streaming
+     * the input through batched inserts. Ids are preserved so posts can follow.
+     *
+     * @return the number of imported rows
+     */
+    public long importUsersFromCsv(Reader in) {
+        long rows = new CsvBulkTransfer(router.forWrite()).importUsers(in);
+        if (userIds != null) {
+            userIds.resync();
         }
+        rebuildUserPostStats();
+        return rows;
+    }
+
+    /**
+     * Bulk-load posts from CSV ({@value CsvBulkTransfer#POSTS_HEADER}).
+     * Post stats are rebuilt once the load finishes.
+     *
+     * @return the number of imported rows
+     */
+    public long importPostsFromCsv(Reader in) {
+        requirePartitions(false, "CSV post import");
+        long rows = new CsvBulkTransfer(router.forWrite()).importPosts(in);
+        if (postIds != null) {
+            postIds.resync();
+        }
+        rebuildUserPostStats();
+        return rows;
+    }
+
+    /**
+     * Stream every user to CSV without materializing the table
+     *
+     * @return the number of exported rows
+     */
+    public long exportUsersToCsv(Writer out) {
+        return new CsvBulkTransfer(router.forRead()).exportUsers(out);
+    }
+
+    /**
+     * Stream every post to CSV without materializing the table
+     *
+     * @return the number of exported rows
+     */
+    public long exportPostsToCsv(Writer out) {
+        return new CsvBulkTransfer(router.forRead()).exportPosts(out);
+    }
+
+    /**
+     * Stream every post as newline-delimited JSON, e.g. for a search indexer.
+     * Memory use stays flat however many posts there are; the stream is left open.
+     *
+     * @param gzip compress the output with gzip
+     * @return the number of exported posts
+     */
+    public long exportPostsAsNdjson(OutputStream out, boolean gzip) {
+        return new PostNdjsonExporter(router.forRead()).export(out, gzip);
+    }
+
+    /**
+     * Build the full-text index over post titles and content. Safe to call again;
+     * the index is kept in sync by triggers and, like any table, replicates to read replicas.
+     */
+    public void enableFullTextSearch() {
+        requirePartitions(false, "Full-text search");
+        PostFullTextSearch.enable(router.forWrite());
+    }
+
+    /**
+     * Find posts containing every word of the query, best matches first.
+     * Requires {@link #enableFullTextSearch()}.
+     *
+     * @param page zero-based page number
+     */
+    public List<PostSearchHit> searchPosts(String query, int page, int pageSize) {
+        return PostFullTextSearch.search(router.forRead(), query, page, pageSize);
     }
 
     /**
      * Close the data source
      */
     public void close() {
+        replicaPools.forEach(HikariDataSource::close);
         if (dataSource instanceof HikariDataSource) {
             ((HikariDataSource) dataSource).close();
         }
@@ -0,0 +1,189 @@
+package com.fose.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for {@link DatabaseManager#createUserAndPost}.
+ *
+ * Concurrent requests are collected for a short window (or until the batch is
+ * full) and written by a single background thread in one transaction with
+ * {@link DatabaseManager#createUsersAndPosts}. The commit cost is paid once
+ * per batch instead of once per request.
+ *
+ * Every caller still gets its own outcome. If a batch fails - say one request
+ * has a duplicate username - it is rolled back and each request is retried in
+ * its own transaction, so only the offending request fails. Anything else
+ * thrown while writing a batch fails that batch's remaining requests and the
+ * writer carries on with the next one.
+ *
+ * Whether this pays off depends on the commit. Against in-memory H2, where a
+ * commit is nearly free, the hand-off to the writer thread costs about as much
+ * as the commits it saves, and group commit comes out slower or faster than
+ * per-request transactions depending on the machine. It only wins reliably
+ * once commits wait on a durable log flush.
+ */
+public class GroupCommitWriter implements AutoCloseable {
+    private final DatabaseManager databaseManager;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private final LongAdder batchesCommitted = new LongAdder();
+    private final LongAdder requestsCommitted = new LongAdder();
+    private final LongAdder fallbackBatches = new LongAdder();
+    private boolean running = true;
+
+    public GroupCommitWriter(DatabaseManager databaseManager, Duration window, int maxBatchSize) {
+        if (window.isNegative() || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Window must not be negative and batches need at least one request");
+        }
+        this.databaseManager = databaseManager;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.writerThread = new Thread(this::runWriter, "group-commit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue a user and their first post for the next group commit
+     *
+     * @return a future completed with the new user's id once the batch commits
+     */
+    public CompletableFuture<Long> createUserAndPost(String username, String email,
+                                                     String postTitle, String postContent) {
+        Request request = new Request(username, email, postTitle, postContent);
+        synchronized (this) {
+            if (!running) {
+                request.result.completeExceptionally(new IllegalStateException("Group commit writer is closed"));
+                return request.result;
+            }
+            queue.add(request);
+        }
+        return request.result;
+    }
+
+    public long getBatchesCommitted() {
+        return batchesCommitted.sum();
+    }
+
+    public long getRequestsCommitted() {
+        return requestsCommitted.sum();
+    }
+
+    /**
+     * Batches that failed as a whole and were retried request by request
+     */
+    public long getFallbackBatches() {
+        return fallbackBatches.sum();
+    }
+
+    private void runWriter() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (isClosed() && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+
+                // Gather whatever else arrives within the window
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0
+                        ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                        : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                try {
+                    write(batch);
+                } catch (Throwable t) {
+                    // Keep the writer alive for later batches; whoever still waits on this one fails
+                    batch.forEach(r -> r.result.completeExceptionally(t));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(r -> r.result.completeExceptionally(e));
+                queue.forEach(r -> r.result.completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Request> batch) {
+        try {
+            List<NewUserPost> newUserPosts = new ArrayList<>(batch.size());
+            batch.forEach(request -> newUserPosts.add(request.newUserPost));
+            List<Long> userIds = databaseManager.createUsersAndPosts(newUserPosts);
+            batchesCommitted.increment();
+            requestsCommitted.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(userIds.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // One bad request must not fail its neighbours - retry each on its own
+            fallbackBatches.increment();
+            for (Request request : batch) {
+                try {
+                    NewUserPost newUserPost = request.newUserPost;
+                    Long userId = databaseManager.createUserAndPost(newUserPost.getUsername(), newUserPost.getEmail(),
+                        newUserPost.getPostTitle(), newUserPost.getPostContent());
+                    requestsCommitted.increment();
+                    request.result.complete(userId);
+                } catch (RuntimeException failure) {
+                    request.result.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return !running;
+    }
+
+    /**
+     * Stop accepting requests and wait for queued ones to be written
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Request {
+        private final NewUserPost newUserPost;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        Request(String username, String email, String postTitle, String postContent) {
+            this.newUserPost = new NewUserPost(username, email, postTitle, postContent);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.fose.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out primary keys for one table from blocks reserved in the database.
+ *
+ * A sequence stepping by the block size is read once per block; each value it
+ * returns is the first id of a block this allocator then assigns in memory.
+ * Inserts can carry their ids up front instead of reading a generated key back
+ * per row, which is what lets users and their posts go into the same JDBC batch.
+ *
+ * Ids stay unique across processes sharing the database, but are only roughly
+ * ordered and leave gaps when a process stops mid-block. Every insert into the
+ * table must take its id from here once the allocator is in use.
+ */
+class HiLoIdAllocator {
+    private final DataSource dataSource;
+    private final String table;
+    private final String sequence;
+    private final int blockSize;
+    private long next;
+    private long limit;
+
+    HiLoIdAllocator(DataSource dataSource, String table, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.dataSource = dataSource;
+        this.table = table;
+        this.sequence = table + "_id_seq";
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Create the backing sequence, starting above any ids already in the table
+     */
+    void initialize() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE SEQUENCE IF NOT EXISTS " + sequence +
+                               " START WITH " + firstFreeId(stmt) + " INCREMENT BY " + blockSize);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create id sequence for " + table, e);
+        }
+    }
+
+    /**
+     * Move the sequence past ids written without the allocator, e.g. by a bulk
+     * import that preserves ids, and drop the rest of the current block
+     */
+    synchronized void resync() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER SEQUENCE " + sequence + " RESTART WITH " + firstFreeId(stmt));
+            next = limit;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to resync id sequence for " + table, e);
+        }
+    }
+
+    /**
+     * Next id, reserving a block on {@code conn} when the current one is used
+     * up. Callers pass the connection they insert on: taking a second pooled
+     * connection while holding one can exhaust the pool and deadlock. Sequence
+     * values are not transactional, so a rollback of the caller's transaction
+     * only leaves a gap.
+     */
+    synchronized long nextId(Connection conn) throws SQLException {
+        if (next == limit) {
+            reserveBlock(conn);
+        }
+        return next++;
+    }
+
+    /**
+     * Ids for a batch of inserts, reserving as many blocks as needed on {@code conn}
+     */
+    synchronized long[] nextIds(Connection conn, int count) throws SQLException {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (next == limit) {
+                reserveBlock(conn);
+            }
+            ids[i] = next++;
+        }
+        return ids;
+    }
+
+    int getBlockSize() {
+        return blockSize;
+    }
+
+    private void reserveBlock(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT NEXT VALUE FOR " + sequence)) {
+            rs.next();
+            next = rs.getLong(1);
+            limit = next + blockSize;
+        }
+    }
+
+    private long firstFreeId(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.fose.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post read without its content, which is fetched on first access to
+ * {@link #getContent()}. Posts read together share a {@link PostContentLoader},
+ * so that first access fetches the content of the whole page in one query.
+ */
+final class LazyPost extends Post {
+    private final PostContentLoader loader;
+    private volatile boolean contentLoaded;
+
+    LazyPost(Long id, Long userId, String title, LocalDateTime publishedAt, PostContentLoader loader) {
+        super(id, userId, title, null, publishedAt);
+        this.loader = loader;
+    }
+
+    @Override
+    public String getContent() {
+        if (!contentLoaded) {
+            loader.load();
+        }
+        return super.getContent();
+    }
+
+    @Override
+    public void setContent(String content) {
+        super.setContent(content);
+        contentLoaded = true;
+    }
+
+    boolean isContentLoaded() {
+        return contentLoaded;
+    }
+}
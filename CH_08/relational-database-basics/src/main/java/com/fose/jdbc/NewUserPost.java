@@ -0,0 +1,34 @@
+package com.fose.jdbc;
+
+/**
+ * A user to create together with their first post, for batched inserts.
+ */
+public class NewUserPost {
+    private final String username;
+    private final String email;
+    private final String postTitle;
+    private final String postContent;
+
+    public NewUserPost(String username, String email, String postTitle, String postContent) {
+        this.username = username;
+        this.email = email;
+        this.postTitle = postTitle;
+        this.postContent = postContent;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPostTitle() {
+        return postTitle;
+    }
+
+    public String getPostContent() {
+        return postContent;
+    }
+}
@@ -0,0 +1,97 @@
+package com.fose.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exposes the health of a HikariCP pool.
+ *
+ * Gauges (active, idle, pending) are read live from the pool's MXBean, while
+ * connection acquire and usage times are fed into histograms by Hikari itself
+ * through the {@link MetricsTrackerFactory} hook.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final LatencyHistogram acquireTimes = new LatencyHistogram();
+    private final LatencyHistogram usageTimes = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile HikariPoolMXBean pool;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTimes.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTimes.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * Bind the gauges to a started pool
+     */
+    void attach(HikariDataSource dataSource) {
+        this.pool = dataSource.getHikariPoolMXBean();
+    }
+
+    public int getActiveConnections() {
+        HikariPoolMXBean current = pool;
+        return current == null ? 0 : current.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        HikariPoolMXBean current = pool;
+        return current == null ? 0 : current.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        HikariPoolMXBean current = pool;
+        return current == null ? 0 : current.getTotalConnections();
+    }
+
+    /**
+     * Threads currently blocked waiting for a connection
+     */
+    public int getPendingThreads() {
+        HikariPoolMXBean current = pool;
+        return current == null ? 0 : current.getThreadsAwaitingConnection();
+    }
+
+    public LatencyHistogram getAcquireTimes() {
+        return acquireTimes;
+    }
+
+    public LatencyHistogram getUsageTimes() {
+        return usageTimes;
+    }
+
+    public long getConnectionTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{" +
+               "active=" + getActiveConnections() +
+               ", idle=" + getIdleConnections() +
+               ", pending=" + getPendingThreads() +
+               ", timeouts=" + getConnectionTimeouts() +
+               ", acquire=[" + acquireTimes + "]" +
+               '}';
+    }
+}
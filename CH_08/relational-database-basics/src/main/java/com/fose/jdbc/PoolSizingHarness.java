@@ -0,0 +1,165 @@
+package com.fose.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load-test harness for sizing the connection pool from data instead of guesswork.
+ *
+ * For each candidate pool size it starts a fresh in-memory H2 database, drives a
+ * mixed read/write workload from a fixed number of client threads and records
+ * throughput and connection acquire latency. The "knee" is the smallest pool
+ * size whose throughput is within a tolerance of the best one observed - adding
+ * connections beyond it only adds contention.
+ *
+ * Run with: {@code mvn -q compile exec:java -Dexec.mainClass=com.fose.jdbc.PoolSizingHarness}
+ */
+public class PoolSizingHarness {
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    private final int clientThreads;
+    private final Duration stepDuration;
+    private final int seedUsers;
+
+    public PoolSizingHarness(int clientThreads, Duration stepDuration, int seedUsers) {
+        this.clientThreads = clientThreads;
+        this.stepDuration = stepDuration;
+        this.seedUsers = seedUsers;
+    }
+
+    /**
+     * Measure every pool size in turn
+     */
+    public List<Result> sweep(int... poolSizes) {
+        List<Result> results = new ArrayList<>();
+        for (int poolSize : poolSizes) {
+            results.add(measure(poolSize));
+        }
+        return results;
+    }
+
+    /**
+     * Run the workload against a single pool size
+     */
+    public Result measure(int poolSize) {
+        String url = "jdbc:h2:mem:pool-sweep-" + DATABASE_COUNTER.incrementAndGet();
+        DatabaseManager db = new DatabaseManager(url, poolSize);
+        ExecutorService clients = Executors.newFixedThreadPool(clientThreads);
+        try {
+            db.initializeSchema();
+            long[] userIds = new long[seedUsers];
+            for (int i = 0; i < seedUsers; i++) {
+                userIds[i] = db.createUser("user" + i, "user" + i + "@example.com");
+                db.createPost(userIds[i], "Seed post", "Seed content");
+            }
+            db.getPoolMetrics().getAcquireTimes().reset();
+
+            LongAdder operations = new LongAdder();
+            long deadline = System.nanoTime() + stepDuration.toNanos();
+            List<Future<?>> workers = new ArrayList<>(clientThreads);
+            for (int t = 0; t < clientThreads; t++) {
+                workers.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        long userId = userIds[random.nextInt(userIds.length)];
+                        // 80% reads, 20% writes - a typical blog workload
+                        if (random.nextInt(5) == 0) {
+                            db.createPost(userId, "Title", "Generated content");
+                        } else {
+                            db.findPostsByUserId(userId);
+                        }
+                        operations.increment();
+                    }
+                }));
+            }
+            clients.shutdown();
+            if (!clients.awaitTermination(stepDuration.toMillis() + 30_000, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Workload did not finish for pool size " + poolSize);
+            }
+            // A client that died early would just lower the throughput and skew the knee
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Workload failed for pool size " + poolSize, e.getCause());
+                }
+            }
+
+            double seconds = stepDuration.toNanos() / 1_000_000_000.0;
+            LatencyHistogram acquire = db.getPoolMetrics().getAcquireTimes();
+            return new Result(poolSize, operations.sum() / seconds, acquire.getPercentileNanos(99));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while measuring pool size " + poolSize, e);
+        } finally {
+            clients.shutdownNow();
+            db.close();
+        }
+    }
+
+    /**
+     * The smallest pool size reaching (1 - tolerance) of the best throughput
+     */
+    public static Result findKnee(List<Result> results, double tolerance) {
+        if (results.isEmpty()) {
+            throw new IllegalArgumentException("No results to analyse");
+        }
+        double best = results.stream().mapToDouble(Result::getThroughput).max().orElse(0);
+        return results.stream()
+            .filter(r -> r.getThroughput() >= best * (1 - tolerance))
+            .min((a, b) -> Integer.compare(a.getPoolSize(), b.getPoolSize()))
+            .orElseThrow();
+    }
+
+    public static void main(String[] args) {
+        PoolSizingHarness harness = new PoolSizingHarness(32, Duration.ofSeconds(3), 1_000);
+        List<Result> results = harness.sweep(1, 2, 4, 8, 16, 32);
+        results.forEach(System.out::println);
+        System.out.println("Knee: " + findKnee(results, 0.05));
+    }
+
+    /**
+     * Outcome of one step of the sweep
+     */
+    public static class Result {
+        private final int poolSize;
+        private final double throughput;
+        private final long p99AcquireNanos;
+
+        public Result(int poolSize, double throughput, long p99AcquireNanos) {
+            this.poolSize = poolSize;
+            this.throughput = throughput;
+            this.p99AcquireNanos = p99AcquireNanos;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        /**
+         * Operations per second
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public long getP99AcquireNanos() {
+            return p99AcquireNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("poolSize=%d, throughput=%.0f ops/s, p99 acquire=%.1fus",
+                poolSize, throughput, p99AcquireNanos / 1_000.0);
+        }
+    }
+}
@@ -69,8 +69,8 @@ public class Post {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Post post = (Post) o;
+        // instanceof, so a lazily loaded post equals the fully loaded one
+        if (!(o instanceof Post post)) return false;
         return Objects.equals(id, post.id);
     }
 
@@ -0,0 +1,70 @@
+package com.fose.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches the content of a page of {@link LazyPost}s in one
+ * {@code WHERE id = ANY(?)} query instead of one query per post.
+ */
+final class PostContentLoader {
+    private final DataSource dataSource;
+    private final List<LazyPost> posts = new ArrayList<>();
+
+    PostContentLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Map rows of id, user_id, title and published_at to lazy posts sharing this loader
+     */
+    List<Post> mapAll(ResultSet rs) throws SQLException {
+        List<Post> page = new ArrayList<>();
+        while (rs.next()) {
+            LazyPost post = new LazyPost(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                rs.getObject(4, LocalDateTime.class), this);
+            posts.add(post);
+            page.add(post);
+        }
+        return page;
+    }
+
+    /**
+     * Fetch the content of every post of the page still without it
+     */
+    synchronized void load() {
+        Map<Long, LazyPost> pending = new HashMap<>();
+        for (LazyPost post : posts) {
+            if (!post.isContentLoaded()) {
+                pending.put(post.getId(), post);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, content FROM posts WHERE id = ANY(?)")) {
+            Array ids = conn.createArrayOf("BIGINT", pending.keySet().toArray());
+            stmt.setArray(1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    pending.remove(rs.getLong(1)).setContent(rs.getString(2));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load post content", e);
+        }
+        // Deleted since the page was read; do not query for them again
+        pending.values().forEach(post -> post.setContent(null));
+    }
+}
@@ -0,0 +1,142 @@
+package com.fose.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Full-text search over post titles and content using H2's native full-text index.
+ *
+ * H2 maintains the index with triggers, so every write path - single inserts,
+ * transactions, group commits and bulk imports - keeps it in sync without any
+ * extra code. The native index only answers "which rows contain all these
+ * words" (its score is always 1.0), so ranking is done in SQL over the matching
+ * rows only: whole-word occurrences of each term, with title matches counting
+ * three times as much as content matches.
+ */
+class PostFullTextSearch {
+    private static final int MAX_TERMS = 10;
+    private static final int TITLE_WEIGHT = 3;
+    /** Letters and digits on either side would make an occurrence part of a longer word */
+    private static final String NOT_AFTER_WORD = "(?<![\\p{L}\\p{N}])";
+    private static final String NOT_BEFORE_WORD = "(?![\\p{L}\\p{N}])";
+
+    private PostFullTextSearch() {
+    }
+
+    /**
+     * Create the full-text index on posts(title, content), indexing existing rows
+     */
+    static void enable(DataSource dataSource) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"");
+            stmt.execute("CALL FT_INIT()");
+
+            boolean indexed;
+            try (ResultSet rs = stmt.executeQuery(
+                     "SELECT COUNT(*) FROM FT.INDEXES WHERE SCHEMA = 'PUBLIC' AND \"TABLE\" = 'POSTS'")) {
+                rs.next();
+                indexed = rs.getInt(1) > 0;
+            }
+            if (!indexed) {
+                stmt.execute("CALL FT_CREATE_INDEX('PUBLIC', 'POSTS', 'TITLE,CONTENT')");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to enable full-text search", e);
+        }
+    }
+
+    static List<PostSearchHit> search(DataSource dataSource, String text, int page, int pageSize) {
+        if (page < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page must not be negative and page size must be positive");
+        }
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        String query = "SELECT p.id, p.user_id, p.title, p.published_at, " + scoreExpression(terms.size()) +
+                      " AS score FROM FT_SEARCH_DATA(?, 0, 0) ft " +
+                      "JOIN posts p ON p.id = CAST(ft.KEYS[1] AS BIGINT) " +
+                      "WHERE ft.\"TABLE\" = 'POSTS' " +
+                      "ORDER BY score DESC, p.published_at DESC, p.id DESC " +
+                      "LIMIT ? OFFSET ?";
+        List<PostSearchHit> hits = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            int index = 1;
+            for (String term : terms) {
+                // Each term's pattern and length, once for the title count and once for the content count
+                for (int i = 0; i < 2; i++) {
+                    stmt.setString(index++, NOT_AFTER_WORD + term + NOT_BEFORE_WORD);
+                    stmt.setInt(index++, term.length());
+                }
+            }
+            stmt.setString(index++, String.join(" ", terms));
+            stmt.setInt(index++, pageSize);
+            stmt.setLong(index, (long) page * pageSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new PostSearchHit(
+                        rs.getLong(1),
+                        rs.getLong(2),
+                        rs.getString(3),
+                        rs.getObject(4, LocalDateTime.class),
+                        rs.getDouble(5)
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to search posts", e);
+        }
+
+        return hits;
+    }
+
+    /**
+     * Split into lower-case runs of letters and digits, dropping duplicates.
+     * These are the words passed to the index and scored; the index tokenizes
+     * the columns itself, splitting on whitespace and punctuation and
+     * uppercasing, and matches these words against its own tokens.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            .filter(term -> !term.isEmpty())
+            .distinct()
+            .limit(MAX_TERMS)
+            .toList();
+    }
+
+    /**
+     * Weighted term frequency: whole-word occurrences are counted by how much
+     * shorter the column gets when they are removed, so "cat" does not score
+     * inside "category". Terms are letters and digits only, so they need no
+     * escaping inside the pattern.
+     */
+    private static String scoreExpression(int termCount) {
+        String titleHits = wordHits("p.title");
+        String contentHits = wordHits("p.content");
+        String perTerm = "(" + TITLE_WEIGHT + " * " + titleHits + " + " + contentHits + ")";
+        return "CAST(" + String.join(" + ", Collections.nCopies(termCount, perTerm)) + " AS DOUBLE PRECISION)";
+    }
+
+    private static String wordHits(String column) {
+        return "(CHAR_LENGTH(LOWER(" + column + ")) - " +
+               "CHAR_LENGTH(REGEXP_REPLACE(LOWER(" + column + "), CAST(? AS VARCHAR), ''))) / CAST(? AS INT)";
+    }
+}
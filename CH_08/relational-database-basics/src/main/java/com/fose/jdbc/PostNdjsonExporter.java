@@ -0,0 +1,110 @@
+package com.fose.jdbc;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams every post as newline-delimited JSON, one object per line.
+ *
+ * Rows go straight from the result set into a Jackson {@link JsonGenerator};
+ * the post content is copied from the CLOB's character stream rather than
+ * read into a String first. The only buffers are the generator's own and,
+ * when compressing, a fixed-size gzip buffer, so memory use does not depend
+ * on the number of posts or the size of any one of them.
+ */
+class PostNdjsonExporter {
+    private static final String QUERY =
+        "SELECT id, user_id, title, content, published_at FROM posts ORDER BY id";
+    private static final int FETCH_SIZE = 1_000;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final JsonFactory jsonFactory;
+
+    PostNdjsonExporter(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jsonFactory = new JsonFactoryBuilder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .rootValueSeparator((String) null)
+            .build();
+    }
+
+    long export(OutputStream out, boolean gzip) {
+        long rows = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            // Let H2 hand rows over as it reads them instead of materializing the result first
+            setLazyQueryExecution(conn, true);
+            try (PreparedStatement stmt = conn.prepareStatement(QUERY,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(FETCH_SIZE);
+
+                GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+                try (ResultSet rs = stmt.executeQuery();
+                     JsonGenerator generator = jsonFactory.createGenerator(compressed != null ? compressed : out)) {
+                    while (rs.next()) {
+                        writePost(generator, rs);
+                        rows++;
+                    }
+                }
+                if (compressed != null) {
+                    // Write the gzip trailer but leave the caller's stream open
+                    compressed.finish();
+                }
+                out.flush();
+            } finally {
+                setLazyQueryExecution(conn, false);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("NDJSON export failed after " + rows + " posts", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write NDJSON after " + rows + " posts", e);
+        }
+        return rows;
+    }
+
+    private static void writePost(JsonGenerator generator, ResultSet rs) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong(1));
+        generator.writeNumberField("userId", rs.getLong(2));
+        generator.writeStringField("title", rs.getString(3));
+
+        generator.writeFieldName("content");
+        try (Reader content = rs.getCharacterStream(4)) {
+            if (content == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(content, -1);
+            }
+        }
+
+        LocalDateTime publishedAt = rs.getObject(5, LocalDateTime.class);
+        if (publishedAt == null) {
+            generator.writeNullField("publishedAt");
+        } else {
+            generator.writeStringField("publishedAt", publishedAt.toString());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void setLazyQueryExecution(Connection conn, boolean lazy) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? "TRUE" : "FALSE"));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.fose.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Routes posts to one table per calendar month ({@code posts_p202401}, ...).
+ *
+ * H2 has no native partitioning, so each month is a plain table with a CHECK
+ * constraint on {@code published_at}, and {@code posts} becomes a UNION ALL
+ * view over the live partitions for queries that need every post. Writes go
+ * straight to the month's table, created on first use; time-range reads name
+ * only the partitions overlapping the range. Archiving renames old partitions
+ * out of the view without copying a row; writers hold {@link #insertLock()}
+ * from resolving their table until they commit, so a partition is never
+ * renamed under an insert.
+ */
+class PostPartitions {
+    static final String ARCHIVE_PREFIX = "posts_archive_";
+
+    private static final String PREFIX = "posts_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String COLUMNS = "id, user_id, title, content, published_at";
+
+    private final DataSource dataSource;
+    private final NavigableMap<YearMonth, String> partitions = new ConcurrentSkipListMap<>();
+    // Always taken before this object's monitor, so inserts creating a partition cannot deadlock with archiving
+    private final ReadWriteLock archiveLock = new ReentrantReadWriteLock();
+
+    PostPartitions(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Pick up existing partitions, make sure the current month has one and
+     * (re)create the {@code posts} view
+     */
+    synchronized void initialize() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(
+                     "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+                     "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE' " +
+                     "AND REGEXP_LIKE(TABLE_NAME, '^POSTS_P[0-9]{6}$')")) {
+                while (rs.next()) {
+                    String table = rs.getString(1).toLowerCase(Locale.ROOT);
+                    partitions.put(YearMonth.parse(table.substring(PREFIX.length()), SUFFIX), table);
+                }
+            }
+            createPartition(stmt, YearMonth.now());
+            replaceView(stmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize post partitions", e);
+        }
+    }
+
+    /**
+     * Held, shared with other inserts, from {@link #tableFor} until the insert
+     * commits or rolls back; {@link #archiveBefore} waits for it
+     */
+    Lock insertLock() {
+        return archiveLock.readLock();
+    }
+
+    /**
+     * Table for a post published at the given time, created if needed.
+     * Call this before starting the transaction that inserts the post: DDL
+     * in H2 commits the open transaction of its session. Hold
+     * {@link #insertLock()} until that transaction ends.
+     */
+    String tableFor(LocalDateTime publishedAt) {
+        YearMonth month = YearMonth.from(publishedAt);
+        String table = partitions.get(month);
+        return table != null ? table : addPartition(month);
+    }
+
+    /**
+     * Partitions whose month overlaps [from, to), oldest first
+     */
+    List<String> tablesOverlapping(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        YearMonth last = YearMonth.from(to.minusNanos(1));
+        return List.copyOf(partitions.subMap(YearMonth.from(from), true, last, true).values());
+    }
+
+    List<YearMonth> getMonths() {
+        return List.copyOf(partitions.keySet());
+    }
+
+    /**
+     * Take every partition older than {@code cutoff} out of service by renaming
+     * it to {@code posts_archive_yyyyMM}, where it can be exported and dropped
+     *
+     * @return the archive table names
+     */
+    List<String> archiveBefore(YearMonth cutoff) {
+        archiveLock.writeLock().lock();
+        try {
+            return archiveUnlocked(cutoff);
+        } finally {
+            archiveLock.writeLock().unlock();
+        }
+    }
+
+    private synchronized List<String> archiveUnlocked(YearMonth cutoff) {
+        NavigableMap<YearMonth, String> old = partitions.headMap(cutoff, false);
+        if (old.isEmpty()) {
+            return List.of();
+        }
+        List<YearMonth> months = new ArrayList<>(old.keySet());
+        List<String> archived = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // Stop routing reads to the old months before their tables change name
+            months.forEach(partitions::remove);
+            try {
+                // The view must stop referencing the tables before they can be renamed
+                replaceView(stmt);
+                for (YearMonth month : months) {
+                    String archive = ARCHIVE_PREFIX + month.format(SUFFIX);
+                    stmt.executeUpdate("ALTER TABLE " + PREFIX + month.format(SUFFIX) + " RENAME TO " + archive);
+                    archived.add(archive);
+                }
+            } catch (SQLException e) {
+                // Months not yet renamed are still live: put them back, and the view over them
+                for (YearMonth month : months.subList(archived.size(), months.size())) {
+                    partitions.put(month, PREFIX + month.format(SUFFIX));
+                }
+                try {
+                    replaceView(stmt);
+                } catch (SQLException restore) {
+                    e.addSuppressed(restore);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to archive post partitions", e);
+        }
+        return archived;
+    }
+
+    /**
+     * One query over the given partitions, newest first
+     */
+    static String unionQuery(List<String> tables, String where) {
+        List<String> selects = new ArrayList<>();
+        for (String table : tables) {
+            selects.add("SELECT " + COLUMNS + " FROM " + table + " WHERE " + where);
+        }
+        return String.join(" UNION ALL ", selects) + " ORDER BY published_at DESC";
+    }
+
+    private synchronized String addPartition(YearMonth month) {
+        String existing = partitions.get(month);
+        if (existing != null) {
+            return existing;
+        }
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            String table = createPartition(stmt, month);
+            replaceView(stmt);
+            return table;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create post partition for " + month, e);
+        }
+    }
+
+    private String createPartition(Statement stmt, YearMonth month) throws SQLException {
+        String table = PREFIX + month.format(SUFFIX);
+        stmt.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS %s (
+                id BIGINT PRIMARY KEY,
+                user_id BIGINT REFERENCES users(id),
+                title VARCHAR(200) NOT NULL,
+                content TEXT NOT NULL,
+                published_at TIMESTAMP NOT NULL,
+                CHECK (published_at >= TIMESTAMP '%s' AND published_at < TIMESTAMP '%s')
+            )
+            """.formatted(table, month.atDay(1) + " 00:00:00", month.plusMonths(1).atDay(1) + " 00:00:00"));
+        partitions.put(month, table);
+        return table;
+    }
+
+    private void replaceView(Statement stmt) throws SQLException {
+        String body;
+        if (partitions.isEmpty()) {
+            body = "SELECT CAST(NULL AS BIGINT) AS id, CAST(NULL AS BIGINT) AS user_id, " +
+                   "CAST(NULL AS VARCHAR(200)) AS title, CAST(NULL AS CLOB) AS content, " +
+                   "CAST(NULL AS TIMESTAMP) AS published_at WHERE FALSE";
+        } else {
+            List<String> selects = new ArrayList<>();
+            for (String table : partitions.values()) {
+                selects.add("SELECT " + COLUMNS + " FROM " + table);
+            }
+            body = String.join(" UNION ALL ", selects);
+        }
+        stmt.executeUpdate("CREATE OR REPLACE VIEW posts AS " + body);
+    }
+}
@@ -0,0 +1,55 @@
+package com.fose.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * One ranked result of a full-text search over posts.
+ * Carries what a result list shows, not the full post content.
+ */
+public class PostSearchHit {
+    private final Long postId;
+    private final Long userId;
+    private final String title;
+    private final LocalDateTime publishedAt;
+    private final double score;
+
+    public PostSearchHit(Long postId, Long userId, String title, LocalDateTime publishedAt, double score) {
+        this.postId = postId;
+        this.userId = userId;
+        this.title = title;
+        this.publishedAt = publishedAt;
+        this.score = score;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    /**
+     * Relevance; higher is better. Only meaningful relative to other hits of the same query.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "PostSearchHit{" +
+               "postId=" + postId +
+               ", title='" + title + '\'' +
+               ", score=" + score +
+               '}';
+    }
+}
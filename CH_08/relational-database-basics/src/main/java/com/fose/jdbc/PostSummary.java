@@ -0,0 +1,39 @@
+package com.fose.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a list of posts shows: no content, so the TEXT column is never read.
+ */
+public class PostSummary {
+    private final Long id;
+    private final String title;
+    private final LocalDateTime publishedAt;
+
+    public PostSummary(Long id, String title, LocalDateTime publishedAt) {
+        this.id = id;
+        this.title = title;
+        this.publishedAt = publishedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PostSummary{" +
+               "id=" + id +
+               ", title='" + title + '\'' +
+               ", publishedAt=" + publishedAt +
+               '}';
+    }
+}
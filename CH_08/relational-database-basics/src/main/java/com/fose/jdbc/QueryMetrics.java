@@ -0,0 +1,92 @@
+package com.fose.jdbc;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement latency and row counts collected by the JDBC instrumentation
+ * of a {@link DatabaseManager}, plus the time callers waited for a connection.
+ *
+ * Statements are grouped by their normalized SQL, so the same query with
+ * different literals or bind values is counted once.
+ */
+public class QueryMetrics {
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_NORMALIZATIONS = 1_000;
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> statementsByRawSql = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionAcquireTimes = new LatencyHistogram();
+
+    /**
+     * Stats for every statement seen so far, slowest in total first
+     */
+    public List<StatementStats> getStatementStats() {
+        return statements.values().stream()
+            .sorted(Comparator.comparingDouble(
+                (StatementStats s) -> s.getLatency().getMeanNanos() * s.getExecutions()).reversed())
+            .toList();
+    }
+
+    /**
+     * Stats for one statement, looked up by its raw or normalized SQL; null if never executed
+     */
+    public StatementStats getStatementStats(String sql) {
+        return statements.get(normalize(sql));
+    }
+
+    /**
+     * Time spent in {@code DataSource.getConnection()}, including any wait for the pool
+     */
+    public LatencyHistogram getConnectionAcquireTimes() {
+        return connectionAcquireTimes;
+    }
+
+    public void reset() {
+        statementsByRawSql.clear();
+        statements.clear();
+        connectionAcquireTimes.reset();
+    }
+
+    /**
+     * Stats for a statement as written by the caller. Prepared SQL is normalized
+     * the first time it is seen and then found with a single lookup; ad-hoc SQL
+     * with inlined values is not cached once the cache is full, so it cannot
+     * grow without bound.
+     */
+    StatementStats statement(String sql) {
+        StatementStats stats = statementsByRawSql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        stats = statements.computeIfAbsent(normalize(sql), StatementStats::new);
+        if (statementsByRawSql.size() < MAX_CACHED_NORMALIZATIONS) {
+            statementsByRawSql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Replace literals with {@code ?} and collapse whitespace
+     */
+    String normalize(String sql) {
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        return WHITESPACE.matcher(result).replaceAll(" ").trim();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("QueryMetrics{connectionAcquire=[")
+            .append(connectionAcquireTimes).append(']');
+        for (StatementStats stats : getStatementStats()) {
+            report.append("\n  ").append(stats);
+        }
+        return report.append('}').toString();
+    }
+}
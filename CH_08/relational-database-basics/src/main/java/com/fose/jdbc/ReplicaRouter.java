@@ -0,0 +1,81 @@
+package com.fose.jdbc;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the data source for each statement.
+ *
+ * Writes always go to the primary. Reads go round-robin across the replicas,
+ * unless the caller wrote within the read-your-writes window - then they stay
+ * on the primary so the caller cannot miss its own changes while the replicas
+ * catch up. A caller is a thread by default; work handed to other threads,
+ * such as {@link AsyncDatabaseManager} calls, runs in the handing thread's
+ * {@link Session} via {@link #inSession}.
+ */
+class ReplicaRouter {
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long stickinessNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<Session> session = ThreadLocal.withInitial(Session::new);
+
+    ReplicaRouter(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.stickinessNanos = readYourWritesWindow.toNanos();
+    }
+
+    DataSource forWrite() {
+        if (stickinessNanos > 0) {
+            session.get().lastWriteNanos = System.nanoTime();
+        }
+        return primary;
+    }
+
+    DataSource forRead() {
+        if (replicas.isEmpty() || isSticky()) {
+            return primary;
+        }
+        int index = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        return replicas.get(index);
+    }
+
+    /**
+     * Wrap {@code call} so that, on whichever thread it runs, its writes and
+     * reads count as the current thread's
+     */
+    <T> Supplier<T> inSession(Supplier<T> call) {
+        if (stickinessNanos == 0) {
+            return call;
+        }
+        Session caller = session.get();
+        return () -> {
+            Session previous = session.get();
+            session.set(caller);
+            try {
+                return call.get();
+            } finally {
+                session.set(previous);
+            }
+        };
+    }
+
+    private boolean isSticky() {
+        if (stickinessNanos == 0) {
+            return false;
+        }
+        Long lastWrite = session.get().lastWriteNanos;
+        return lastWrite != null && System.nanoTime() - lastWrite < stickinessNanos;
+    }
+
+    /**
+     * When a caller last wrote; shared by every thread working on the caller's behalf
+     */
+    private static final class Session {
+        private volatile Long lastWriteNanos;
+    }
+}
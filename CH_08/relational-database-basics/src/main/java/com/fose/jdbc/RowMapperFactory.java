@@ -0,0 +1,16 @@
+package com.fose.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Creates a {@link RowMapper} for one query.
+ *
+ * Column names are resolved to positions once, when the result set is opened,
+ * so the per-row work is plain positional reads instead of a name lookup for
+ * every column of every row.
+ */
+@FunctionalInterface
+public interface RowMapperFactory<T> {
+    RowMapper<T> bind(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,70 @@
+package com.fose.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Row mappers for the users and posts tables.
+ *
+ * Timestamps are read with {@code getObject(index, LocalDateTime.class)}, which
+ * skips the intermediate {@link java.sql.Timestamp} that
+ * {@code getTimestamp(...).toLocalDateTime()} allocates for every row.
+ */
+public final class RowMappers {
+    public static final RowMapperFactory<User> USER = rs -> {
+        int id = rs.findColumn("id");
+        int username = rs.findColumn("username");
+        int email = rs.findColumn("email");
+        int createdAt = rs.findColumn("created_at");
+        return row -> new User(
+            row.getLong(id),
+            row.getString(username),
+            row.getString(email),
+            row.getObject(createdAt, LocalDateTime.class)
+        );
+    };
+
+    public static final RowMapperFactory<Post> POST = rs -> {
+        int id = rs.findColumn("id");
+        int userId = rs.findColumn("user_id");
+        int title = rs.findColumn("title");
+        int content = rs.findColumn("content");
+        int publishedAt = rs.findColumn("published_at");
+        return row -> new Post(
+            row.getLong(id),
+            row.getLong(userId),
+            row.getString(title),
+            row.getString(content),
+            row.getObject(publishedAt, LocalDateTime.class)
+        );
+    };
+
+    public static final RowMapperFactory<PostSummary> POST_SUMMARY = rs -> {
+        int id = rs.findColumn("id");
+        int title = rs.findColumn("title");
+        int publishedAt = rs.findColumn("published_at");
+        return row -> new PostSummary(
+            row.getLong(id),
+            row.getString(title),
+            row.getObject(publishedAt, LocalDateTime.class)
+        );
+    };
+
+    private RowMappers() {
+    }
+
+    /**
+     * Bind the factory once, then map every remaining row
+     */
+    public static <T> List<T> mapAll(ResultSet rs, RowMapperFactory<T> factory) throws SQLException {
+        RowMapper<T> mapper = factory.bind(rs);
+        List<T> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(mapper.mapRow(rs));
+        }
+        return rows;
+    }
+}
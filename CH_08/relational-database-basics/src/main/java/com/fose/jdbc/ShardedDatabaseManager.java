@@ -0,0 +1,158 @@
+package com.fose.jdbc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Spreads users and their posts over several databases, each with its own
+ * connection pool, so writes are no longer limited by a single instance.
+ *
+ * A new user's shard is picked by hashing the username, which also keeps the
+ * username unique: the same name always lands on the same shard. Each shard
+ * hands out ids from its own interleaved sequence (shard i of N generates
+ * i+1, i+1+N, ...), so the id alone identifies the shard and lookups by user
+ * id need no directory. A user's posts live on the user's shard.
+ *
+ * Queries over all users are scattered to every shard in parallel and the
+ * per-shard results, already sorted by the database, are merged.
+ * Emails are only unique within a shard.
+ */
+public class ShardedDatabaseManager implements AutoCloseable {
+    private static final Comparator<User> NEWEST_FIRST =
+        Comparator.comparing(User::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final List<DatabaseManager> shards = new ArrayList<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedDatabaseManager(List<String> shardUrls) {
+        this(shardUrls, DatabaseManager.DEFAULT_MAXIMUM_POOL_SIZE);
+    }
+
+    /**
+     * @param maximumPoolSize pool size of each shard
+     */
+    public ShardedDatabaseManager(List<String> shardUrls, int maximumPoolSize) {
+        if (shardUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        for (String shardUrl : shardUrls) {
+            shards.add(new DatabaseManager(shardUrl, maximumPoolSize));
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Initialize the schema on every shard with interleaved id sequences
+     */
+    public void initializeSchema() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            shards.get(shard).initializeSchema(shard + 1, shards.size());
+        }
+    }
+
+    public Long createUser(String username, String email) {
+        return shardForUsername(username).createUser(username, email);
+    }
+
+    public Long createPost(Long userId, String title, String content) {
+        return shardForUser(userId).createPost(userId, title, content);
+    }
+
+    public List<Post> findPostsByUserId(Long userId) {
+        return shardForUser(userId).findPostsByUserId(userId);
+    }
+
+    /**
+     * Create a user and their first post in one transaction on the user's shard
+     *
+     * @return the id of the new user
+     */
+    public Long createUserAndPost(String username, String email, String postTitle, String postContent) {
+        return shardForUsername(username).createUserAndPost(username, email, postTitle, postContent);
+    }
+
+    /**
+     * All users across all shards, newest first
+     */
+    public List<User> findAllUsers() {
+        List<CompletableFuture<List<User>>> queries = new ArrayList<>();
+        for (DatabaseManager shard : shards) {
+            queries.add(CompletableFuture.supplyAsync(shard::findAllUsers, executor));
+        }
+
+        List<List<User>> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<User>> query : queries) {
+                results.add(query.join());
+            }
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to find users on every shard", e.getCause());
+        }
+        return merge(results);
+    }
+
+    /**
+     * Index of the shard owning a user id
+     */
+    public int shardIndexForUser(long userId) {
+        return (int) Math.floorMod(userId - 1, (long) shards.size());
+    }
+
+    int shardIndexForUsername(String username) {
+        // Spread the bits of String.hashCode, whose low bits are weak for similar names
+        int hash = username.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return Math.floorMod(hash, shards.size());
+    }
+
+    private DatabaseManager shardForUser(Long userId) {
+        return shards.get(shardIndexForUser(userId));
+    }
+
+    private DatabaseManager shardForUsername(String username) {
+        return shards.get(shardIndexForUsername(username));
+    }
+
+    /**
+     * K-way merge of lists that are each sorted newest first
+     */
+    private static List<User> merge(List<List<User>> sortedLists) {
+        int total = sortedLists.stream().mapToInt(List::size).sum();
+        List<User> merged = new ArrayList<>(total);
+
+        // Each entry is {list index, position in that list}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+            (a, b) -> NEWEST_FIRST.compare(sortedLists.get(a[0]).get(a[1]), sortedLists.get(b[0]).get(b[1])));
+        for (int list = 0; list < sortedLists.size(); list++) {
+            if (!sortedLists.get(list).isEmpty()) {
+                heads.add(new int[]{list, 0});
+            }
+        }
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<User> list = sortedLists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        shards.forEach(DatabaseManager::close);
+    }
+}
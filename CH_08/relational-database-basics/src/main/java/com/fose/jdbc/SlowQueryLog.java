@@ -0,0 +1,55 @@
+package com.fose.jdbc;
+
+import java.time.Duration;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs statements that run longer than a threshold.
+ *
+ * Bind values are never written out: each is reduced to its type (and length,
+ * for strings and byte arrays), which is enough to tell a 10-character lookup
+ * from a 10 MB blob without leaking user data into the logs.
+ */
+class SlowQueryLog {
+    static final String LOGGER_NAME = "com.fose.jdbc.SlowQueries";
+
+    private static final Logger LOGGER = Logger.getLogger(LOGGER_NAME);
+
+    private final long thresholdNanos;
+
+    SlowQueryLog(Duration threshold) {
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    void log(String sql, long nanos, Object[] binds, int bindCount) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.warning(String.format("Slow statement (%.1f ms): %s binds=%s",
+                nanos / 1_000_000.0, sql, redact(binds, bindCount)));
+        }
+    }
+
+    static String redact(Object[] binds, int bindCount) {
+        StringBuilder redacted = new StringBuilder("[");
+        for (int i = 0; i < bindCount; i++) {
+            if (i > 0) {
+                redacted.append(", ");
+            }
+            Object value = binds[i];
+            if (value == null) {
+                redacted.append("null");
+            } else if (value instanceof CharSequence text) {
+                redacted.append("String(").append(text.length()).append(')');
+            } else if (value instanceof byte[] bytes) {
+                redacted.append("byte[").append(bytes.length).append(']');
+            } else {
+                redacted.append(value.getClass().getSimpleName());
+            }
+        }
+        return redacted.append(']').toString();
+    }
+}
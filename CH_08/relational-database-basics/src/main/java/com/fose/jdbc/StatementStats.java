@@ -0,0 +1,82 @@
+package com.fose.jdbc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution statistics for one normalized SQL statement.
+ */
+public class StatementStats {
+    private final String sql;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final LongAdder rowsAffected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    StatementStats(String sql) {
+        this.sql = sql;
+    }
+
+    void recordExecution(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    void recordRowReturned() {
+        rowsReturned.increment();
+    }
+
+    void recordRowsAffected(long rows) {
+        if (rows > 0) {
+            rowsAffected.add(rows);
+        }
+    }
+
+    /**
+     * The statement with literals replaced by {@code ?} and whitespace collapsed
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Execution time, excluding the time spent reading the result set
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getExecutions() {
+        return latency.getCount();
+    }
+
+    /**
+     * Rows read by callers from result sets of this statement
+     */
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    /**
+     * Rows inserted, updated or deleted according to the reported update counts
+     */
+    public long getRowsAffected() {
+        return rowsAffected.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "StatementStats{" +
+               "sql='" + sql + '\'' +
+               ", rowsReturned=" + getRowsReturned() +
+               ", rowsAffected=" + getRowsAffected() +
+               ", errors=" + getErrors() +
+               ", latency=[" + latency + ']' +
+               '}';
+    }
+}
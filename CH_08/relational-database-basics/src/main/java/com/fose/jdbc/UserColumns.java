@@ -0,0 +1,85 @@
+package com.fose.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Column-oriented view of the users table for analytic scans.
+ *
+ * Rows are stored as parallel arrays instead of one {@link User} per row, and
+ * timestamps as epoch milliseconds in a {@code long[]}, so a scan allocates no
+ * User or LocalDateTime objects at all - only the strings and a few arrays.
+ */
+public class UserColumns {
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] usernames = new String[INITIAL_CAPACITY];
+    private String[] emails = new String[INITIAL_CAPACITY];
+    private long[] createdAtMillis = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Append every row of a result set with columns (id, username, email, created_at millis)
+     */
+    void fill(ResultSet rs) throws SQLException {
+        while (rs.next()) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = rs.getLong(1);
+            usernames[size] = rs.getString(2);
+            emails[size] = rs.getString(3);
+            createdAtMillis[size] = rs.getLong(4);
+            size++;
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+        emails = Arrays.copyOf(emails, capacity);
+        createdAtMillis = Arrays.copyOf(createdAtMillis, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[checkIndex(row)];
+    }
+
+    public String getUsername(int row) {
+        return usernames[checkIndex(row)];
+    }
+
+    public String getEmail(int row) {
+        return emails[checkIndex(row)];
+    }
+
+    /**
+     * Milliseconds between 1970-01-01T00:00 and the stored created_at value
+     */
+    public long getCreatedAtMillis(int row) {
+        return createdAtMillis[checkIndex(row)];
+    }
+
+    /**
+     * Trimmed copy of the id column, handy for vectorised aggregation
+     */
+    public long[] ids() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    public long[] createdAtMillis() {
+        return Arrays.copyOf(createdAtMillis, size);
+    }
+
+    private int checkIndex(int row) {
+        return Objects.checkIndex(row, size);
+    }
+}
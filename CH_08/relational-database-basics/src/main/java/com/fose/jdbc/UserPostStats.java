@@ -0,0 +1,43 @@
+package com.fose.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * Post count and latest post time of one user, read from the
+ * incrementally maintained {@code user_post_stats} table.
+ */
+public class UserPostStats {
+    private final Long userId;
+    private final long postCount;
+    private final LocalDateTime latestPostAt;
+
+    public UserPostStats(Long userId, long postCount, LocalDateTime latestPostAt) {
+        this.userId = userId;
+        this.postCount = postCount;
+        this.latestPostAt = latestPostAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getPostCount() {
+        return postCount;
+    }
+
+    /**
+     * Null when the user has no posts
+     */
+    public LocalDateTime getLatestPostAt() {
+        return latestPostAt;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPostStats{" +
+               "userId=" + userId +
+               ", postCount=" + postCount +
+               ", latestPostAt=" + latestPostAt +
+               '}';
+    }
+}
@@ -0,0 +1,172 @@
+package com.fose.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL for the {@code user_post_stats} summary table: one row per user with
+ * their post count and latest post time.
+ *
+ * The row is created with the user and bumped by every post insert on the
+ * caller's connection, so it commits or rolls back with the post itself.
+ * Dashboards then read one row per user instead of aggregating all posts.
+ * Rows written outside {@link DatabaseManager}, such as bulk loads, are caught
+ * up with {@link #rebuild}; {@link #verify} reports any drift.
+ */
+final class UserPostStatsTable {
+    static final String CREATE_TABLE = """
+        CREATE TABLE IF NOT EXISTS user_post_stats (
+            user_id BIGINT PRIMARY KEY REFERENCES users(id),
+            post_count BIGINT NOT NULL,
+            latest_post_at TIMESTAMP
+        )
+        """;
+
+    // Posts without an explicit time get the transaction's timestamp, and so does their stats row
+    private static final String PUBLISHED_AT = "COALESCE(CAST(? AS TIMESTAMP), LOCALTIMESTAMP)";
+    private static final String INSERT = "INSERT INTO user_post_stats (user_id, post_count, latest_post_at) " +
+                                         "VALUES (?, ?, CASE WHEN ? > 0 THEN " + PUBLISHED_AT + " END)";
+    private static final String RECORD_POST = "UPDATE user_post_stats SET post_count = post_count + 1, " +
+                                              "latest_post_at = GREATEST(COALESCE(latest_post_at, " + PUBLISHED_AT + "), " +
+                                              PUBLISHED_AT + ") WHERE user_id = ?";
+    private static final String SELECT = "SELECT user_id, post_count, latest_post_at FROM user_post_stats";
+    private static final String ACTUAL_STATS = "SELECT u.id, COUNT(p.id), MAX(p.published_at) " +
+                                               "FROM users u LEFT JOIN posts p ON p.user_id = u.id GROUP BY u.id";
+
+    private UserPostStatsTable() {
+    }
+
+    /**
+     * Create the stats row of a new user, who has {@code postCount} posts (zero or one)
+     *
+     * @param publishedAt time of the user's post; null for the transaction's timestamp
+     */
+    static void insertForNewUser(Connection conn, long userId, int postCount,
+                                 LocalDateTime publishedAt) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT)) {
+            bindInsert(stmt, userId, postCount, publishedAt);
+            stmt.executeUpdate();
+        }
+    }
+
+    static void insertForNewUsers(Connection conn, long[] userIds, int postCount,
+                                  LocalDateTime publishedAt) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT)) {
+            for (long userId : userIds) {
+                bindInsert(stmt, userId, postCount, publishedAt);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Count a post just inserted on the same connection
+     *
+     * @param publishedAt time of the post; null for the transaction's timestamp
+     */
+    static void recordPost(Connection conn, long userId, LocalDateTime publishedAt) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(RECORD_POST)) {
+            stmt.setObject(1, publishedAt);
+            stmt.setObject(2, publishedAt);
+            stmt.setLong(3, userId);
+            if (stmt.executeUpdate() == 0) {
+                // A user loaded around DatabaseManager, with no stats row yet
+                insertForNewUser(conn, userId, 1, publishedAt);
+            }
+        }
+    }
+
+    static UserPostStats find(DataSource dataSource, long userId) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT + " WHERE user_id = ?")) {
+            stmt.setLong(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? map(rs) : new UserPostStats(userId, 0, null);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find post stats", e);
+        }
+    }
+
+    static List<UserPostStats> findMostActive(DataSource dataSource, int limit) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 SELECT + " WHERE post_count > 0 ORDER BY post_count DESC, latest_post_at DESC LIMIT ?")) {
+            stmt.setInt(1, limit);
+            List<UserPostStats> stats = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stats.add(map(rs));
+                }
+            }
+            return stats;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find post stats", e);
+        }
+    }
+
+    /**
+     * Recompute every row from the posts table in one transaction
+     *
+     * @return the number of users
+     */
+    static int rebuild(DataSource dataSource) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM user_post_stats");
+                int rows = stmt.executeUpdate(
+                    "INSERT INTO user_post_stats (user_id, post_count, latest_post_at) " + ACTUAL_STATS);
+                conn.commit();
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to rebuild post stats", e);
+        }
+    }
+
+    /**
+     * Ids of users whose stats row disagrees with their posts, or is missing
+     */
+    static List<Long> verify(DataSource dataSource) {
+        String query = "SELECT a.id FROM (" + ACTUAL_STATS + ") a(id, post_count, latest_post_at) " +
+                       "LEFT JOIN user_post_stats s ON s.user_id = a.id " +
+                       "WHERE s.user_id IS NULL OR s.post_count <> a.post_count " +
+                       "OR s.latest_post_at IS DISTINCT FROM a.latest_post_at " +
+                       "ORDER BY a.id";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            List<Long> drifted = new ArrayList<>();
+            while (rs.next()) {
+                drifted.add(rs.getLong(1));
+            }
+            return drifted;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to verify post stats", e);
+        }
+    }
+
+    private static void bindInsert(PreparedStatement stmt, long userId, int postCount,
+                                   LocalDateTime publishedAt) throws SQLException {
+        stmt.setLong(1, userId);
+        stmt.setInt(2, postCount);
+        stmt.setInt(3, postCount);
+        stmt.setObject(4, publishedAt);
+    }
+
+    private static UserPostStats map(ResultSet rs) throws SQLException {
+        return new UserPostStats(rs.getLong(1), rs.getLong(2), rs.getObject(3, LocalDateTime.class));
+    }
+}
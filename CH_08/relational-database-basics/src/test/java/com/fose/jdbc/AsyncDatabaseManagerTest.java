@@ -0,0 +1,197 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the virtual-thread async facade, including a fan-out latency comparison.
+ */
+class AsyncDatabaseManagerTest {
+    private static final int FAN_OUT = 24;
+
+    private DatabaseManager dbManager;
+    private AsyncDatabaseManager asyncManager;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        dbManager = new DatabaseManager("jdbc:h2:mem:asyncdb" + testCounter, 4);
+        dbManager.initializeSchema();
+        asyncManager = new AsyncDatabaseManager(dbManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncManager.close();
+        dbManager.close();
+    }
+
+    @Test
+    void shouldCompleteFuturesWithResults() throws Exception {
+        Long userId = asyncManager.createUser("alice", "alice@example.com").get();
+        asyncManager.createPost(userId, "Async Post", "Written on a virtual thread").get();
+
+        CompletableFuture<List<User>> users = asyncManager.findAllUsers();
+        CompletableFuture<List<Post>> posts = asyncManager.findPostsByUserId(userId);
+        CompletableFuture.allOf(users, posts).get();
+
+        assertEquals(1, users.get().size());
+        assertEquals("Async Post", posts.get().get(0).getTitle());
+    }
+
+    @Test
+    void shouldCompleteExceptionallyOnFailure() {
+        asyncManager.createUser("alice", "alice@example.com").join();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> asyncManager.createUser("alice", "other@example.com").get());
+        assertInstanceOf(RuntimeException.class, failure.getCause());
+    }
+
+    @Test
+    void shouldNeverOverrunThePool() {
+        Long userId = dbManager.createUser("author", "author@example.com");
+
+        // Far more calls than connections - the semaphore queues the excess
+        List<CompletableFuture<List<Post>>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(asyncManager.findPostsByUserId(userId));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(0, dbManager.getPoolMetrics().getConnectionTimeouts());
+        assertEquals(0, asyncManager.getInFlightCalls());
+    }
+
+    @Test
+    void shouldFollowPoolResizes() {
+        assertEquals(4, asyncManager.getMaxConcurrentCalls());
+
+        dbManager.setMaximumPoolSize(2);
+        awaitAll(200);
+        assertEquals(2, asyncManager.getMaxConcurrentCalls());
+
+        dbManager.setMaximumPoolSize(6);
+        awaitAll(200);
+        assertEquals(6, asyncManager.getMaxConcurrentCalls());
+        assertEquals(0, asyncManager.getInFlightCalls());
+        assertEquals(0, dbManager.getPoolMetrics().getConnectionTimeouts());
+
+        // An explicit bound stays as given
+        try (AsyncDatabaseManager fixed = new AsyncDatabaseManager(dbManager, 3)) {
+            fixed.findAllUsers().join();
+            assertEquals(3, fixed.getMaxConcurrentCalls());
+        }
+    }
+
+    @Test
+    void shouldReadOwnWritesAcrossAsyncCalls() throws Exception {
+        String primaryUrl = "jdbc:h2:mem:asyncprimary" + testCounter + ";DB_CLOSE_DELAY=-1";
+        String replicaUrl = "jdbc:h2:mem:asyncreplica" + testCounter + ";DB_CLOSE_DELAY=-1";
+        DatabaseManager replica = new DatabaseManager(replicaUrl, 1);
+        replica.initializeSchema();
+        replica.close();
+
+        DatabaseConfig config = new DatabaseConfig(primaryUrl);
+        config.setMaximumPoolSize(2);
+        config.addReplicaUrl(replicaUrl);
+        config.setReadYourWritesWindow(Duration.ofMinutes(1));
+        DatabaseManager routed = new DatabaseManager(config);
+        try (AsyncDatabaseManager async = new AsyncDatabaseManager(routed)) {
+            routed.initializeSchema();
+            async.createUser("alice", "alice@example.com").get();
+
+            // The write ran on another thread, yet this caller's next read goes to the primary
+            assertEquals(1, async.findAllUsers().get().size());
+            assertEquals(1, routed.findAllUsers().size());
+
+            // A caller that never wrote reads the replica, which has not caught up
+            CompletableFuture<Integer> otherCaller = new CompletableFuture<>();
+            Thread.ofPlatform().start(() -> otherCaller.complete(async.findAllUsers().join().size())).join();
+            assertEquals(0, otherCaller.get());
+        } finally {
+            routed.close();
+            for (String url : List.of(primaryUrl, replicaUrl)) {
+                try (Connection conn = DriverManager.getConnection(url);
+                     Statement stmt = conn.createStatement()) {
+                    stmt.execute("SHUTDOWN");
+                }
+            }
+        }
+    }
+
+    private void awaitAll(int calls) {
+        List<CompletableFuture<List<User>>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(asyncManager.findAllUsers());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * Fan-out pays off when each query waits on the network or disk. In-memory H2
+     * has neither, so on a machine with few cores the two numbers stay close;
+     * against a remote database the fan-out latency approaches that of the
+     * slowest single query.
+     */
+    @Test
+    @Tag("benchmark")
+    void compareFanOutWithSequentialLatency() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < FAN_OUT; i++) {
+            Long userId = dbManager.createUser("user" + i, "user" + i + "@example.com");
+            for (int p = 0; p < 50; p++) {
+                dbManager.createPost(userId, "Post " + p, "Content ".repeat(20));
+            }
+            userIds.add(userId);
+        }
+
+        // Warm up both paths
+        for (int i = 0; i < 20; i++) {
+            sequential(userIds);
+            fanOut(userIds);
+        }
+
+        long sequentialNanos = 0;
+        long fanOutNanos = 0;
+        int rounds = 20;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            sequential(userIds);
+            sequentialNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            fanOut(userIds);
+            fanOutNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%d independent queries on %d cores: sequential %.2fms, fan-out %.2fms%n",
+            FAN_OUT, Runtime.getRuntime().availableProcessors(),
+            sequentialNanos / rounds / 1_000_000.0, fanOutNanos / rounds / 1_000_000.0);
+    }
+
+    private void sequential(List<Long> userIds) {
+        for (Long userId : userIds) {
+            assertEquals(50, dbManager.findPostsByUserId(userId).size());
+        }
+    }
+
+    private void fanOut(List<Long> userIds) {
+        List<CompletableFuture<List<Post>>> futures = new ArrayList<>();
+        for (Long userId : userIds) {
+            futures.add(asyncManager.findPostsByUserId(userId));
+        }
+        futures.forEach(f -> assertEquals(50, f.join().size()));
+    }
+}
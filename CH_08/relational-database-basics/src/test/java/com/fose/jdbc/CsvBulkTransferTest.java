@@ -0,0 +1,177 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streaming CSV import and export.
+ */
+class CsvBulkTransferTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 100_000);
+
+    private DatabaseManager dbManager;
+    private static int testCounter = 0;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        dbManager = new DatabaseManager("jdbc:h2:mem:csvdb" + testCounter);
+        dbManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    @Test
+    void shouldRoundTripUsersAndPosts() {
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(aliceId, "Hello, \"world\"", "Line one\nLine two, with comma");
+
+        StringWriter users = new StringWriter();
+        StringWriter posts = new StringWriter();
+        assertEquals(1, dbManager.exportUsersToCsv(users));
+        assertEquals(1, dbManager.exportPostsToCsv(posts));
+
+        // Load the export into a second database
+        DatabaseManager target = new DatabaseManager("jdbc:h2:mem:csvtarget" + testCounter);
+        try {
+            target.initializeSchema();
+            assertEquals(1, target.importUsersFromCsv(new StringReader(users.toString())));
+            assertEquals(1, target.importPostsFromCsv(new StringReader(posts.toString())));
+
+            List<Post> imported = target.findPostsByUserId(aliceId);
+            assertEquals(1, imported.size());
+            assertEquals("Hello, \"world\"", imported.get(0).getTitle());
+            assertEquals("Line one\nLine two, with comma", imported.get(0).getContent());
+        } finally {
+            target.close();
+        }
+    }
+
+    @Test
+    void shouldRoundTripNullsAndEmptyStrings() throws Exception {
+        dbManager.createUser("alice", "alice@example.com");
+        try (Connection conn = dbManager.writeDataSource().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE users SET created_at = NULL");
+            stmt.executeUpdate("INSERT INTO posts (user_id, title, content, published_at) " +
+                               "VALUES (NULL, 'Orphan', '', NULL)");
+        }
+        StringWriter users = new StringWriter();
+        StringWriter posts = new StringWriter();
+        dbManager.exportUsersToCsv(users);
+        dbManager.exportPostsToCsv(posts);
+
+        DatabaseManager target = new DatabaseManager("jdbc:h2:mem:csvnulls" + testCounter);
+        try {
+            target.initializeSchema();
+            target.importUsersFromCsv(new StringReader(users.toString()));
+            target.importPostsFromCsv(new StringReader(posts.toString()));
+
+            assertNull(target.findAllUsers().get(0).getCreatedAt());
+            try (Connection conn = target.writeDataSource().getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT user_id, content, published_at FROM posts")) {
+                assertTrue(rs.next());
+                assertNull(rs.getObject(1));
+                assertEquals("", rs.getString(2));
+                assertNull(rs.getObject(3));
+            }
+        } finally {
+            target.close();
+        }
+    }
+
+    @Test
+    void shouldContinueIdentityAfterImport() {
+        String csv = CsvBulkTransfer.USERS_HEADER + "\n" +
+                     "41,alice,alice@example.com,2024-01-01T10:00\n" +
+                     "42,bob,bob@example.com,\n";
+
+        assertEquals(2, dbManager.importUsersFromCsv(new StringReader(csv)));
+
+        // New rows must not collide with the imported ids
+        Long nextId = dbManager.createUser("charlie", "charlie@example.com");
+        assertTrue(nextId > 42);
+        assertEquals(3, dbManager.findAllUsers().size());
+    }
+
+    @Test
+    void shouldRejectMalformedCsv() {
+        String wrongHeader = "username,email\nalice,alice@example.com\n";
+        assertThrows(RuntimeException.class, () -> dbManager.importUsersFromCsv(new StringReader(wrongHeader)));
+
+        String missingColumn = CsvBulkTransfer.USERS_HEADER + "\n1,alice,alice@example.com\n";
+        assertThrows(RuntimeException.class, () -> dbManager.importUsersFromCsv(new StringReader(missingColumn)));
+    }
+
+    @Test
+    void shouldKeepNothingFromAFileThatFailsToParse() {
+        StringBuilder csv = new StringBuilder(CsvBulkTransfer.USERS_HEADER).append('\n');
+        // Several full batches reach the writer before the bad record does
+        for (int i = 1; i <= 2_500; i++) {
+            csv.append(i).append(",user").append(i).append(",user").append(i).append("@example.com,\n");
+        }
+        csv.append("2501,broken\n");
+
+        assertThrows(RuntimeException.class, () -> dbManager.importUsersFromCsv(new StringReader(csv.toString())));
+
+        assertTrue(dbManager.findAllUsers().isEmpty());
+        assertEquals(1, dbManager.createUser("alice", "alice@example.com"));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void shouldStreamLargeImportsAndExports() throws Exception {
+        Path usersCsv = tempDir.resolve("users.csv");
+        try (Writer writer = Files.newBufferedWriter(usersCsv, StandardCharsets.UTF_8)) {
+            writer.write(CsvBulkTransfer.USERS_HEADER);
+            writer.write('\n');
+            for (int i = 1; i <= BENCHMARK_ROWS; i++) {
+                writer.write(i + ",user" + i + ",user" + i + "@example.com,2024-01-01T00:00\n");
+            }
+        }
+
+        long start = System.nanoTime();
+        long imported;
+        try (Reader reader = Files.newBufferedReader(usersCsv, StandardCharsets.UTF_8)) {
+            imported = dbManager.importUsersFromCsv(reader);
+        }
+        double importSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        assertEquals(BENCHMARK_ROWS, imported);
+
+        Path exportCsv = tempDir.resolve("export.csv");
+        start = System.nanoTime();
+        long exported;
+        try (BufferedWriter writer = Files.newBufferedWriter(exportCsv, StandardCharsets.UTF_8)) {
+            exported = dbManager.exportUsersToCsv(writer);
+        }
+        double exportSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        assertEquals(BENCHMARK_ROWS, exported);
+
+        System.out.printf("CSV import: %d rows in %.2fs (%.0f rows/s)%n",
+            imported, importSeconds, imported / importSeconds);
+        System.out.printf("CSV export: %d rows in %.2fs (%.0f rows/s)%n",
+            exported, exportSeconds, exported / exportSeconds);
+    }
+}
@@ -0,0 +1,162 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for batching concurrent createUserAndPost calls into group commits.
+ */
+class GroupCommitWriterTest {
+    private DatabaseManager dbManager;
+    private GroupCommitWriter writer;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        dbManager = new DatabaseManager("jdbc:h2:mem:groupdb" + testCounter);
+        dbManager.initializeSchema();
+        // No extra wait: batches form from whatever queues up during the previous commit
+        writer = new GroupCommitWriter(dbManager, Duration.ZERO, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.close();
+        dbManager.close();
+    }
+
+    @Test
+    void shouldGroupConcurrentRequestsIntoFewerCommits() {
+        // A generous window makes the grouping deterministic
+        GroupCommitWriter windowed = new GroupCommitWriter(dbManager, Duration.ofMillis(200), 100);
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(windowed.createUserAndPost("user" + i, "user" + i + "@example.com", "Post " + i, "Content"));
+        }
+
+        HashSet<Long> userIds = new HashSet<>();
+        results.forEach(r -> userIds.add(r.join()));
+        windowed.close();
+
+        assertEquals(50, userIds.size());
+        assertEquals(50, dbManager.findAllUsers().size());
+        assertTrue(windowed.getBatchesCommitted() < 50, "Expected batching, got " + windowed.getBatchesCommitted());
+
+        // Every caller got the id of their own user, with their own post attached
+        Long firstUser = results.get(0).join();
+        assertEquals("Post 0", dbManager.findPostsByUserId(firstUser).get(0).getTitle());
+    }
+
+    @Test
+    void shouldFailOnlyTheBadRequestInABatch() {
+        dbManager.createUser("taken", "taken@example.com");
+
+        CompletableFuture<Long> good1 = writer.createUserAndPost("good1", "good1@example.com", "Title", "Content");
+        CompletableFuture<Long> bad = writer.createUserAndPost("taken", "other@example.com", "Title", "Content");
+        CompletableFuture<Long> good2 = writer.createUserAndPost("good2", "good2@example.com", "Title", "Content");
+
+        assertNotNull(good1.join());
+        assertNotNull(good2.join());
+        ExecutionException failure = assertThrows(ExecutionException.class, bad::get);
+        assertInstanceOf(RuntimeException.class, failure.getCause());
+
+        // The failed request left no orphaned post behind
+        assertEquals(3, dbManager.findAllUsers().size());
+    }
+
+    @Test
+    void shouldKeepWritingAfterABatchThrowsAnError() {
+        DatabaseManager failingOnce = new DatabaseManager("jdbc:h2:mem:groupdberror" + testCounter) {
+            private boolean failed;
+
+            @Override
+            public List<Long> createUsersAndPosts(List<NewUserPost> newUserPosts) {
+                if (!failed) {
+                    failed = true;
+                    throw new StackOverflowError("simulated");
+                }
+                return super.createUsersAndPosts(newUserPosts);
+            }
+        };
+        failingOnce.initializeSchema();
+        GroupCommitWriter failingWriter = new GroupCommitWriter(failingOnce, Duration.ZERO, 100);
+        try {
+            CompletableFuture<Long> lost =
+                failingWriter.createUserAndPost("alice", "alice@example.com", "Title", "Content");
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> lost.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failure.getCause());
+
+            CompletableFuture<Long> next = failingWriter.createUserAndPost("bob", "bob@example.com", "Title", "Content");
+            assertNotNull(assertDoesNotThrow(() -> next.get(5, TimeUnit.SECONDS)));
+        } finally {
+            failingWriter.close();
+            failingOnce.close();
+        }
+    }
+
+    @Test
+    void shouldRejectRequestsAfterClose() {
+        CompletableFuture<Long> queued = writer.createUserAndPost("alice", "alice@example.com", "Title", "Content");
+        writer.close();
+
+        assertNotNull(queued.join());
+        CompletableFuture<Long> late = writer.createUserAndPost("bob", "bob@example.com", "Title", "Content");
+        assertTrue(late.isCompletedExceptionally());
+    }
+
+    /**
+     * In-memory H2 commits without touching a disk, so this mostly measures the
+     * hand-off overhead, and either side may come out ahead; group commit only
+     * wins reliably once commits are durable.
+     */
+    @Test
+    @Tag("benchmark")
+    void compareGroupCommitWithPerRequestTransactions() throws Exception {
+        int requests = 2_000;
+        int clients = 32;
+
+        // Warm up both paths
+        runConcurrently(clients, 500, i ->
+            dbManager.createUserAndPost("warm" + i, "warm" + i + "@example.com", "Title", "Content"));
+        runConcurrently(clients, 500, i ->
+            writer.createUserAndPost("warmer" + i, "warmer" + i + "@example.com", "Title", "Content").join());
+
+        long start = System.nanoTime();
+        runConcurrently(clients, requests, i ->
+            dbManager.createUserAndPost("direct" + i, "direct" + i + "@example.com", "Title", "Content"));
+        double perRequestSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        start = System.nanoTime();
+        runConcurrently(clients, requests, i ->
+            writer.createUserAndPost("grouped" + i, "grouped" + i + "@example.com", "Title", "Content").join());
+        double groupedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertEquals(2L * requests + 1_000, dbManager.findAllUsers().size());
+        System.out.printf("createUserAndPost x%d: per-request %.0f/s, group commit %.0f/s (%d batches)%n",
+            requests, requests / perRequestSeconds, requests / groupedSeconds, writer.getBatchesCommitted());
+    }
+
+    private static void runConcurrently(int clients, int requests, IntConsumer call)
+            throws InterruptedException {
+        try (ExecutorService executor = Executors.newFixedThreadPool(clients)) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                executor.submit(() -> call.accept(index));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for client-side id assignment from reserved blocks, with a throughput
+ * comparison against reading generated keys back.
+ */
+class HiLoIdAllocatorTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 20_000);
+    private static final int BATCH_SIZE = 100;
+
+    private String url;
+    private final List<DatabaseManager> managers = new ArrayList<>();
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        url = "jdbc:h2:mem:hilodb" + testCounter + ";DB_CLOSE_DELAY=-1";
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        managers.forEach(DatabaseManager::close);
+        managers.clear();
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+    }
+
+    private DatabaseManager newManager(String jdbcUrl, int idBlockSize) {
+        DatabaseConfig config = new DatabaseConfig(jdbcUrl);
+        config.setIdBlockSize(idBlockSize);
+        DatabaseManager manager = new DatabaseManager(config);
+        manager.initializeSchema();
+        managers.add(manager);
+        return manager;
+    }
+
+    @Test
+    void shouldAssignIdsWithoutGeneratedKeys() {
+        DatabaseManager dbManager = newManager(url, 50);
+
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        Long bobId = dbManager.createUserAndPost("bob", "bob@example.com", "Hello", "World");
+        Long postId = dbManager.createPost(aliceId, "Title", "Content");
+
+        assertEquals(aliceId + 1, bobId);
+        assertEquals(2, postId);
+        assertEquals("Hello", dbManager.findPostsByUserId(bobId).get(0).getTitle());
+    }
+
+    @Test
+    void managersSharingADatabaseShouldNotCollide() {
+        DatabaseManager first = newManager(url, 10);
+        DatabaseManager second = newManager(url, 10);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            assertTrue(ids.add(first.createUser("first" + i, "first" + i + "@example.com")));
+            assertTrue(ids.add(second.createUser("second" + i, "second" + i + "@example.com")));
+        }
+        assertEquals(50, first.findAllUsers().size());
+    }
+
+    @Test
+    void shouldBatchUsersWithTheirPosts() {
+        DatabaseManager dbManager = newManager(url, 8);
+        List<NewUserPost> newUserPosts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            newUserPosts.add(new NewUserPost("user" + i, "user" + i + "@example.com", "Post " + i, "Content " + i));
+        }
+
+        List<Long> userIds = dbManager.createUsersAndPosts(newUserPosts);
+
+        assertEquals(20, new HashSet<>(userIds).size());
+        for (int i = 0; i < 20; i++) {
+            List<Post> posts = dbManager.findPostsByUserId(userIds.get(i));
+            assertEquals(1, posts.size());
+            assertEquals("Post " + i, posts.get(0).getTitle());
+        }
+    }
+
+    @Test
+    void shouldSkipIdsWrittenByImports() {
+        DatabaseManager dbManager = newManager(url, 100);
+        dbManager.createUser("alice", "alice@example.com");
+
+        String csv = CsvBulkTransfer.USERS_HEADER + "\n" + "500,bob,bob@example.com,\n";
+        dbManager.importUsersFromCsv(new StringReader(csv));
+
+        assertTrue(dbManager.createUser("charlie", "charlie@example.com") > 500);
+    }
+
+    @Test
+    void shouldReserveBlocksOnTheCallersConnection() {
+        // One connection: reserving a block on a second one would wait for the pool forever
+        DatabaseConfig config = new DatabaseConfig(url);
+        config.setMaximumPoolSize(1);
+        config.setIdBlockSize(10);
+        DatabaseManager dbManager = new DatabaseManager(config);
+        managers.add(dbManager);
+        dbManager.initializeSchema();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 25; i++) {
+                Long userId = dbManager.createUser("user" + i, "user" + i + "@example.com");
+                dbManager.createPost(userId, "Post " + i, "Content");
+            }
+            List<NewUserPost> batch = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                batch.add(new NewUserPost("batch" + i, "batch" + i + "@example.com", "Title", "Content"));
+            }
+            assertEquals(25, new HashSet<>(dbManager.createUsersAndPosts(batch)).size());
+        });
+        assertEquals(50, dbManager.findAllUsers().size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareGeneratedKeysAndHiLo() {
+        DatabaseManager generated = newManager("jdbc:h2:mem:hilogenerated" + testCounter, 0);
+        DatabaseManager hiLo = newManager("jdbc:h2:mem:hilopreallocated" + testCounter, 1_000);
+
+        // Warm up both paths before measuring
+        insertOneByOne(generated, "warm", 2_000);
+        insertOneByOne(hiLo, "warm", 2_000);
+        insertBatched(generated, "warmbatch", 2_000);
+        insertBatched(hiLo, "warmbatch", 2_000);
+
+        System.out.printf("Creating %d users with a post each:%n", BENCHMARK_ROWS);
+        report("generated keys, one by one", measure(n -> insertOneByOne(generated, "single", n)));
+        report("hi/lo ids, one by one", measure(n -> insertOneByOne(hiLo, "single", n)));
+        report("generated keys, batched", measure(n -> insertBatched(generated, "batch", n)));
+        report("hi/lo ids, batched", measure(n -> insertBatched(hiLo, "batch", n)));
+    }
+
+    private static void report(String label, double rowsPerSecond) {
+        System.out.printf("  %-28s %,10.0f rows/s%n", label + ":", rowsPerSecond);
+    }
+
+    private static double measure(Function<Integer, Integer> insert) {
+        long start = System.nanoTime();
+        int rows = insert.apply(BENCHMARK_ROWS);
+        return rows / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private static int insertOneByOne(DatabaseManager manager, String prefix, int rows) {
+        for (int i = 0; i < rows; i++) {
+            manager.createUserAndPost(prefix + i, prefix + i + "@example.com", "Title", "Content");
+        }
+        return rows;
+    }
+
+    private static int insertBatched(DatabaseManager manager, String prefix, int rows) {
+        List<NewUserPost> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new NewUserPost(prefix + i, prefix + i + "@example.com", "Title", "Content"));
+            if (batch.size() == BATCH_SIZE || i == rows - 1) {
+                manager.createUsersAndPosts(batch);
+                batch.clear();
+            }
+        }
+        return rows;
+    }
+}
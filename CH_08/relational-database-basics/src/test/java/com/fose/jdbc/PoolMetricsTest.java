@@ -0,0 +1,101 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for pool statistics and the pool sizing harness.
+ */
+class PoolMetricsTest {
+    private DatabaseManager dbManager;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        dbManager = new DatabaseManager("jdbc:h2:mem:pooldb" + testCounter, 4);
+        dbManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    @Test
+    void shouldExposeConfiguredPoolSize() {
+        assertEquals(4, dbManager.getMaximumPoolSize());
+    }
+
+    @Test
+    void shouldRecordAcquireTimes() {
+        dbManager.createUser("alice", "alice@example.com");
+        dbManager.findAllUsers();
+
+        PoolMetrics metrics = dbManager.getPoolMetrics();
+        assertTrue(metrics.getAcquireTimes().getCount() >= 3);
+        assertEquals(0, metrics.getActiveConnections());
+        assertEquals(0, metrics.getPendingThreads());
+        assertTrue(metrics.getIdleConnections() > 0, metrics.toString());
+    }
+
+    @Test
+    void shouldResizePoolAtRuntime() {
+        dbManager.setMaximumPoolSize(8);
+        assertEquals(8, dbManager.getMaximumPoolSize());
+
+        assertThrows(IllegalArgumentException.class, () -> dbManager.setMaximumPoolSize(0));
+    }
+
+    @Test
+    void histogramShouldReportPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000L, histogram.getMaxNanos());
+        // Buckets are powers of two, so the answer is within a factor of two
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 50_000L && p50 <= 100_000L, "p50 was " + p50);
+    }
+
+    @Test
+    void harnessShouldFindThroughputKnee() {
+        PoolSizingHarness harness = new PoolSizingHarness(8, Duration.ofMillis(300), 50);
+        List<PoolSizingHarness.Result> results = harness.sweep(1, 2, 4, 8);
+
+        assertEquals(4, results.size());
+        results.forEach(r -> assertTrue(r.getThroughput() > 0, r.toString()));
+
+        PoolSizingHarness.Result knee = PoolSizingHarness.findKnee(results, 0.05);
+        assertTrue(results.contains(knee), knee.toString());
+    }
+
+    @Test
+    void harnessShouldFailWhenAClientFails() {
+        // Without seed users every client throws on its first pick instead of counting operations
+        PoolSizingHarness harness = new PoolSizingHarness(2, Duration.ofMillis(100), 0);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> harness.measure(2));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    @Test
+    void kneeShouldBeSmallestPoolNearBestThroughput() {
+        List<PoolSizingHarness.Result> results = List.of(
+            new PoolSizingHarness.Result(1, 1_000, 0),
+            new PoolSizingHarness.Result(2, 1_900, 0),
+            new PoolSizingHarness.Result(4, 2_950, 0),
+            new PoolSizingHarness.Result(8, 3_000, 0),
+            new PoolSizingHarness.Result(16, 2_800, 0)
+        );
+
+        assertEquals(4, PoolSizingHarness.findKnee(results, 0.05).getPoolSize());
+    }
+}
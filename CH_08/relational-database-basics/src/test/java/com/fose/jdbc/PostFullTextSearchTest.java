@@ -0,0 +1,157 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for full-text search over posts, with a comparison against LIKE scans.
+ */
+class PostFullTextSearchTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 20_000);
+
+    private DatabaseManager dbManager;
+    private String url;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        url = "jdbc:h2:mem:searchdb" + testCounter;
+        dbManager = new DatabaseManager(url);
+        dbManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveContentMatches() {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        Long inContent = dbManager.createPost(userId, "Weekend notes", "Some thoughts on Java records");
+        Long inTitle = dbManager.createPost(userId, "Java records explained", "A short introduction");
+        dbManager.createPost(userId, "Unrelated", "Nothing to see here");
+        dbManager.enableFullTextSearch();
+
+        List<PostSearchHit> hits = dbManager.searchPosts("java RECORDS", 0, 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(inTitle, hits.get(0).getPostId());
+        assertEquals(inContent, hits.get(1).getPostId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+        assertEquals(userId, hits.get(0).getUserId());
+    }
+
+    @Test
+    void shouldScoreWholeWordsOnly() {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        Long aboutCats = dbManager.createPost(userId, "Cat care", "Feed the cat twice a day");
+        // Matches the index on "cat" once, but "cat" appears as a substring four more times
+        Long category = dbManager.createPost(userId, "Category list", "cat, categories, concatenate, scatter");
+        dbManager.enableFullTextSearch();
+
+        List<PostSearchHit> hits = dbManager.searchPosts("cat", 0, 10);
+
+        assertEquals(List.of(aboutCats, category), hits.stream().map(PostSearchHit::getPostId).toList());
+        assertEquals(3 + 1, hits.get(0).getScore());
+        assertEquals(1, hits.get(1).getScore());
+    }
+
+    @Test
+    void shouldPaginateResults() {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.enableFullTextSearch();
+        for (int i = 0; i < 25; i++) {
+            dbManager.createPost(userId, "Post " + i, "about databases");
+        }
+
+        assertEquals(10, dbManager.searchPosts("databases", 0, 10).size());
+        assertEquals(10, dbManager.searchPosts("databases", 1, 10).size());
+        assertEquals(5, dbManager.searchPosts("databases", 2, 10).size());
+        assertNotEquals(dbManager.searchPosts("databases", 0, 10).get(0).getPostId(),
+                        dbManager.searchPosts("databases", 1, 10).get(0).getPostId());
+        assertTrue(dbManager.searchPosts("  ,. ", 0, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> dbManager.searchPosts("databases", 0, 0));
+    }
+
+    @Test
+    void shouldIndexPostsWrittenAfterEnabling() {
+        dbManager.enableFullTextSearch();
+        dbManager.enableFullTextSearch();
+
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        Long postId = dbManager.createPost(userId, "Indexing", "Triggers keep the index current");
+        dbManager.createUserAndPost("bob", "bob@example.com", "Second", "Also current");
+
+        assertEquals(postId, dbManager.searchPosts("triggers", 0, 10).get(0).getPostId());
+        assertEquals(2, dbManager.searchPosts("current", 0, 10).size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareFullTextAndLikeSearch() throws SQLException {
+        Long userId = dbManager.createUser("author", "author@example.com");
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO posts (user_id, title, content) " +
+                 "SELECT ?, 'Post ' || X, 'Lorem ipsum dolor sit amet ' || " +
+                 "CASE WHEN MOD(X, 500) = 0 THEN 'kubernetes ' ELSE '' END || 'topic' || MOD(X, 1000) " +
+                 "FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setLong(1, userId);
+            stmt.setInt(2, BENCHMARK_ROWS);
+            stmt.executeUpdate();
+        }
+
+        long start = System.nanoTime();
+        dbManager.enableFullTextSearch();
+        double indexSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 3; i++) {
+            dbManager.searchPosts("kubernetes", 0, 20);
+            likeSearch("kubernetes");
+        }
+
+        start = System.nanoTime();
+        List<PostSearchHit> hits = dbManager.searchPosts("kubernetes", 0, 20);
+        long fullTextNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int likeHits = likeSearch("kubernetes");
+        long likeNanos = System.nanoTime() - start;
+
+        assertEquals(Math.min(20, BENCHMARK_ROWS / 500), hits.size());
+        assertEquals(hits.size(), likeHits);
+        System.out.printf("Search over %d posts (index built in %.1fs): full-text %.2fms, LIKE %.2fms%n",
+            BENCHMARK_ROWS, indexSeconds, fullTextNanos / 1e6, likeNanos / 1e6);
+    }
+
+    /**
+     * What searching looked like without the index: a scan of every title and body
+     */
+    private int likeSearch(String term) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT id FROM posts WHERE LOWER(title) LIKE ? OR LOWER(content) LIKE ? " +
+                 "ORDER BY published_at DESC LIMIT 20")) {
+            stmt.setString(1, "%" + term + "%");
+            stmt.setString(2, "%" + term + "%");
+            int count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.fose.jdbc;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming NDJSON export of posts.
+ */
+class PostNdjsonExporterTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 100_000);
+
+    private DatabaseManager dbManager;
+    private String url;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        url = "jdbc:h2:mem:ndjsondb" + testCounter;
+        dbManager = new DatabaseManager(url);
+        dbManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(userId, "First", "Plain content");
+        dbManager.createPost(userId, "Second \"quoted\"", "Line one\nLine two\ttabbed");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, dbManager.exportPostsAsNdjson(out, false));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+
+        Map<String, String> second = parseObject(lines[1]);
+        assertEquals(userId.toString(), second.get("userId"));
+        assertEquals("Second \"quoted\"", second.get("title"));
+        assertEquals("Line one\nLine two\ttabbed", second.get("content"));
+        assertNotNull(second.get("publishedAt"));
+    }
+
+    @Test
+    void shouldCompressWithGzip() throws Exception {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        for (int i = 0; i < 100; i++) {
+            dbManager.createPost(userId, "Post " + i, "Repetitive content ".repeat(10));
+        }
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        dbManager.exportPostsAsNdjson(plain, false);
+        dbManager.exportPostsAsNdjson(compressed, true);
+
+        byte[] decompressed;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            decompressed = in.readAllBytes();
+        }
+        assertArrayEquals(plain.toByteArray(), decompressed);
+        assertTrue(compressed.size() < plain.size() / 5);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void shouldStreamLargeExportsWithFlatHeap() throws Exception {
+        Long userId = dbManager.createUser("author", "author@example.com");
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO posts (user_id, title, content) " +
+                 "SELECT ?, 'Post ' || X, REPEAT('Lorem ipsum dolor sit amet. ', 20) FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setLong(1, userId);
+            stmt.setInt(2, BENCHMARK_ROWS);
+            stmt.executeUpdate();
+        }
+
+        CountingOutputStream out = new CountingOutputStream();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        long exported = dbManager.exportPostsAsNdjson(out, false);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long heapAfter = usedHeap();
+
+        assertEquals(BENCHMARK_ROWS, exported);
+        System.out.printf("NDJSON export: %d posts, %.1f MB in %.2fs (%.1f MB/s), retained heap %d KB%n",
+            exported, out.count / 1e6, seconds, out.count / 1e6 / seconds, (heapAfter - heapBefore) / 1024);
+    }
+
+    private static Map<String, String> parseObject(String line) throws Exception {
+        Map<String, String> fields = new HashMap<>();
+        try (JsonParser parser = new JsonFactory().createParser(line)) {
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                fields.put(name, parser.getValueAsString());
+            }
+        }
+        return fields;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards the output, keeping only its size
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
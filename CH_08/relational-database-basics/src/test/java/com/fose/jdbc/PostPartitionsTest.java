@@ -0,0 +1,274 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for monthly post partitions, with a comparison of recent-range
+ * queries against a single posts table.
+ */
+class PostPartitionsTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 200_000);
+    private static final int BENCHMARK_MONTHS = 24;
+    private static final int BENCHMARK_USERS = 1_000;
+    private static final int BENCHMARK_QUERIES = 5_000;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private DatabaseManager dbManager;
+    private static int testCounter = 0;
+
+    private DatabaseManager newManager(boolean partitioned) {
+        testCounter++;
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:partitiondb" + testCounter);
+        config.setMonthlyPostPartitions(partitioned);
+        config.setQueryMetricsEnabled(true);
+        DatabaseManager manager = new DatabaseManager(config);
+        manager.initializeSchema();
+        return manager;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dbManager != null) {
+            dbManager.close();
+        }
+    }
+
+    @Test
+    void shouldRoutePostsToTheirMonth() {
+        dbManager = newManager(true);
+        YearMonth current = YearMonth.now();
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+
+        dbManager.createPost(aliceId, "Old", "Content", current.minusMonths(2).atDay(10).atTime(12, 0));
+        dbManager.createPost(aliceId, "Recent", "Content");
+        dbManager.createUserAndPost("bob", "bob@example.com", "Hello", "World");
+
+        assertEquals(List.of(current.minusMonths(2), current), dbManager.getPostPartitions());
+
+        // The posts view still sees every partition
+        List<Post> posts = dbManager.findPostsByUserId(aliceId);
+        assertEquals(List.of("Recent", "Old"), posts.stream().map(Post::getTitle).toList());
+        assertEquals(2, dbManager.getUserPostStats(aliceId).getPostCount());
+        assertTrue(dbManager.verifyUserPostStats().isEmpty());
+    }
+
+    @Test
+    void shouldReadOnlyPartitionsOverlappingTheRange() {
+        dbManager = newManager(true);
+        YearMonth current = YearMonth.now();
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        for (int i = 0; i < 4; i++) {
+            dbManager.createPost(aliceId, "Post " + i, "Content", current.minusMonths(i).atDay(1).atTime(8, 0));
+        }
+
+        LocalDateTime from = current.minusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime to = current.plusMonths(1).atDay(1).atStartOfDay();
+        dbManager.getQueryMetrics().reset();
+        List<Post> recent = dbManager.findPostsByUserId(aliceId, from, to);
+
+        assertEquals(List.of("Post 0", "Post 1"), recent.stream().map(Post::getTitle).toList());
+        String query = dbManager.getQueryMetrics().getStatementStats().get(0).getSql();
+        assertTrue(query.contains("posts_p" + current.format(SUFFIX)), query);
+        assertTrue(query.contains("posts_p" + current.minusMonths(1).format(SUFFIX)), query);
+        assertFalse(query.contains("posts_p" + current.minusMonths(2).format(SUFFIX)), query);
+
+        assertTrue(dbManager.findPostsByUserId(aliceId, to, to.plusYears(1)).isEmpty());
+    }
+
+    @Test
+    void shouldArchiveOldPartitions() throws SQLException {
+        dbManager = newManager(true);
+        YearMonth current = YearMonth.now();
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(aliceId, "Ancient", "Content", current.minusMonths(13).atDay(1).atTime(9, 0));
+        dbManager.createPost(aliceId, "Old", "Content", current.minusMonths(12).atDay(1).atTime(9, 0));
+        dbManager.createPost(aliceId, "Recent", "Content");
+
+        List<String> archived = dbManager.archivePostPartitionsBefore(current.minusMonths(6));
+
+        assertEquals(2, archived.size());
+        assertEquals(List.of(current), dbManager.getPostPartitions());
+        assertEquals(List.of("Recent"), dbManager.findPostsByUserId(aliceId).stream().map(Post::getTitle).toList());
+        assertEquals(1, dbManager.getUserPostStats(aliceId).getPostCount());
+        assertTrue(dbManager.verifyUserPostStats().isEmpty());
+
+        // Archived rows are kept, just out of the live view
+        try (Connection conn = dbManager.writeDataSource().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT title FROM " + archived.get(0))) {
+            assertTrue(rs.next());
+            assertEquals("Ancient", rs.getString(1));
+        }
+    }
+
+    @Test
+    void shouldKeepPartitionsLiveWhenArchivingFails() throws SQLException {
+        dbManager = newManager(true);
+        YearMonth current = YearMonth.now();
+        YearMonth old = current.minusMonths(12);
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(aliceId, "Old", "Content", old.atDay(1).atTime(9, 0));
+        dbManager.createPost(aliceId, "Recent", "Content");
+
+        // An archive table left behind by an earlier run makes the rename fail
+        try (Connection conn = dbManager.writeDataSource().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE posts_archive_" + old.format(DateTimeFormatter.ofPattern("yyyyMM")) +
+                               " (id BIGINT)");
+        }
+
+        assertThrows(RuntimeException.class, () -> dbManager.archivePostPartitionsBefore(current.minusMonths(6)));
+
+        assertEquals(List.of(old, current), dbManager.getPostPartitions());
+        assertEquals(List.of("Recent", "Old"),
+            dbManager.findPostsByUserId(aliceId).stream().map(Post::getTitle).toList());
+        assertEquals(1, dbManager.findPostsByUserId(aliceId, old.atDay(1).atStartOfDay(),
+            old.plusMonths(1).atDay(1).atStartOfDay()).size());
+    }
+
+    @Test
+    void shouldNotLoseInsertsRacingAnArchive() throws Exception {
+        dbManager = newManager(true);
+        YearMonth current = YearMonth.now();
+        YearMonth old = current.minusMonths(12);
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(aliceId, "First", "Content", old.atDay(1).atTime(9, 0));
+
+        int posts = 300;
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < posts; i++) {
+                try {
+                    dbManager.createPost(aliceId, "Post " + i, "Content", old.atDay(1).atTime(10, 0));
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+        });
+        writer.start();
+        while (countRows("posts") < 50) {
+            Thread.onSpinWait();
+        }
+        // The writer keeps going; later posts recreate the month's partition
+        List<String> archived = dbManager.archivePostPartitionsBefore(current.minusMonths(6));
+        writer.join();
+
+        assertEquals(List.of(), failures);
+        assertEquals(1 + posts, countRows(archived.get(0)) + countRows("posts"));
+    }
+
+    private long countRows(String table) throws SQLException {
+        try (Connection conn = dbManager.writeDataSource().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    void shouldRejectUnsupportedOperations() {
+        dbManager = newManager(true);
+        assertThrows(IllegalStateException.class, () -> dbManager.enableFullTextSearch());
+
+        DatabaseManager plain = newManager(false);
+        try {
+            assertThrows(IllegalStateException.class, () -> plain.archivePostPartitionsBefore(YearMonth.now()));
+            assertTrue(plain.getPostPartitions().isEmpty());
+        } finally {
+            plain.close();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareRecentRangeQueries() throws SQLException {
+        DatabaseManager plain = newManager(false);
+        dbManager = newManager(true);
+        try {
+            YearMonth current = YearMonth.now();
+            for (DatabaseManager manager : List.of(plain, dbManager)) {
+                // Give each month its partition up front, then fill them with one INSERT ... SELECT each
+                Long seedUserId = manager.createUser("seed", "seed@example.com");
+                for (int i = 0; i < BENCHMARK_MONTHS; i++) {
+                    manager.createPost(seedUserId, "Seed", "Content", current.minusMonths(i).atDay(1).atStartOfDay());
+                }
+                try (Connection conn = manager.writeDataSource().getConnection()) {
+                    fillMonths(conn, manager == dbManager, current);
+                }
+            }
+
+            LocalDateTime from = current.minusMonths(1).atDay(1).atStartOfDay();
+            LocalDateTime to = current.plusMonths(1).atDay(1).atStartOfDay();
+
+            // Warm up both paths before measuring
+            runQueries(plain, from, to);
+            runQueries(dbManager, from, to);
+
+            long plainNanos = runQueries(plain, from, to);
+            long partitionedNanos = runQueries(dbManager, from, to);
+
+            assertEquals(plain.findPostsByUserId(2L, from, to).size(), dbManager.findPostsByUserId(2L, from, to).size());
+            System.out.printf("Last two months of one user's posts, %d posts over %d months: " +
+                              "single table %.3fms/query, partitioned %.3fms/query%n",
+                BENCHMARK_ROWS, BENCHMARK_MONTHS,
+                plainNanos / 1e6 / BENCHMARK_QUERIES, partitionedNanos / 1e6 / BENCHMARK_QUERIES);
+        } finally {
+            plain.close();
+        }
+    }
+
+    private static void fillMonths(Connection conn, boolean partitioned, YearMonth current) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO users (username, email) " +
+                 "SELECT 'user' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setInt(1, BENCHMARK_USERS);
+            stmt.executeUpdate();
+        }
+
+        int perMonth = BENCHMARK_ROWS / BENCHMARK_MONTHS;
+        for (int i = 0; i < BENCHMARK_MONTHS; i++) {
+            YearMonth month = current.minusMonths(i);
+            String insert = "INSERT INTO posts (user_id, title, content, published_at) SELECT ";
+            if (partitioned) {
+                // Partitions have no identity column; start well clear of the allocator's ids
+                insert = "INSERT INTO posts_p" + month.format(SUFFIX) + " (id, user_id, title, content, published_at) " +
+                         "SELECT 1000000000 + " + (long) i * perMonth + " + X, ";
+            }
+            // Users 2.. are the generated ones; user 1 is the seed
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     insert + "MOD(X, ?) + 2, 'Post ' || X, 'Content', " +
+                     "DATEADD(SECOND, MOD(X * 7919, ?), CAST(? AS TIMESTAMP)) FROM SYSTEM_RANGE(1, ?)")) {
+                stmt.setInt(1, BENCHMARK_USERS);
+                stmt.setInt(2, month.lengthOfMonth() * 86_400);
+                stmt.setObject(3, month.atDay(1).atStartOfDay());
+                stmt.setInt(4, perMonth);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Cycles through the users, as H2 reuses the result of a repeated identical query
+     */
+    private static long runQueries(DatabaseManager manager, LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_QUERIES; i++) {
+            manager.findPostsByUserId(2L + i % BENCHMARK_USERS, from, to);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,167 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for post summaries and lazily loaded post content, with a comparison
+ * of bytes read and latency against full posts.
+ */
+class PostSummaryTest {
+    private static final int BENCHMARK_USERS = 200;
+    private static final int BENCHMARK_POSTS_PER_USER = 50;
+    private static final int BENCHMARK_CONTENT_LENGTH = 4_000;
+    private static final int BENCHMARK_QUERIES = Integer.getInteger("bench.queries", 2_000);
+
+    private static final String CONTENT_QUERY = "SELECT id, content FROM posts WHERE id = ANY(?)";
+
+    private DatabaseManager dbManager;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:summarydb" + testCounter);
+        config.setQueryMetricsEnabled(true);
+        dbManager = new DatabaseManager(config);
+        dbManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    @Test
+    void shouldReadSummariesWithoutContent() {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(userId, "First", "Content 1");
+        dbManager.createPost(userId, "Second", "Content 2");
+
+        List<Post> posts = dbManager.findPostsByUserId(userId);
+        List<PostSummary> summaries = dbManager.findPostSummariesByUserId(userId);
+
+        assertEquals(posts.size(), summaries.size());
+        for (int i = 0; i < posts.size(); i++) {
+            assertEquals(posts.get(i).getId(), summaries.get(i).getId());
+            assertEquals(posts.get(i).getTitle(), summaries.get(i).getTitle());
+            assertEquals(posts.get(i).getPublishedAt(), summaries.get(i).getPublishedAt());
+        }
+        StatementStats summaryQuery = dbManager.getQueryMetrics().getStatementStats(
+            "SELECT id, title, published_at FROM posts WHERE user_id = ? ORDER BY published_at DESC");
+        assertEquals(1, summaryQuery.getExecutions());
+    }
+
+    @Test
+    void shouldLoadContentOfTheWholePageOnFirstAccess() {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        for (int i = 0; i < 5; i++) {
+            dbManager.createPost(userId, "Post " + i, "Content " + i);
+        }
+
+        List<Post> lazy = dbManager.findPostsByUserIdLazily(userId);
+        assertNull(dbManager.getQueryMetrics().getStatementStats(CONTENT_QUERY));
+
+        List<Post> eager = dbManager.findPostsByUserId(userId);
+        assertEquals(eager, lazy);
+        for (int i = 0; i < eager.size(); i++) {
+            assertEquals(eager.get(i).getContent(), lazy.get(i).getContent());
+        }
+        assertEquals(1, dbManager.getQueryMetrics().getStatementStats(CONTENT_QUERY).getExecutions());
+    }
+
+    @Test
+    void shouldNotReloadContentOfDeletedPosts() throws SQLException {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(userId, "Kept", "Content");
+        dbManager.createPost(userId, "Deleted", "Content");
+        List<Post> lazy = dbManager.findPostsByUserIdLazily(userId);
+
+        try (Connection conn = dbManager.writeDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM posts WHERE title = 'Deleted'")) {
+            stmt.executeUpdate();
+        }
+
+        for (Post post : lazy) {
+            assertEquals("Kept".equals(post.getTitle()) ? "Content" : null, post.getContent());
+            post.getContent();
+        }
+        assertEquals(1, dbManager.getQueryMetrics().getStatementStats(CONTENT_QUERY).getExecutions());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareFullPostsAndSummaries() throws SQLException {
+        try (Connection conn = dbManager.writeDataSource().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO users (username, email) " +
+                     "SELECT 'user' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, ?)")) {
+                stmt.setInt(1, BENCHMARK_USERS);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO posts (user_id, title, content) " +
+                     "SELECT MOD(X, ?) + 1, 'Post ' || X, REPEAT('x', ?) FROM SYSTEM_RANGE(1, ?)")) {
+                stmt.setInt(1, BENCHMARK_USERS);
+                stmt.setInt(2, BENCHMARK_CONTENT_LENGTH);
+                stmt.setInt(3, BENCHMARK_USERS * BENCHMARK_POSTS_PER_USER);
+                stmt.executeUpdate();
+            }
+        }
+
+        // Warm up both paths before measuring
+        runFullQueries(BENCHMARK_QUERIES);
+        runSummaryQueries(BENCHMARK_QUERIES);
+
+        long start = System.nanoTime();
+        long fullBytes = runFullQueries(BENCHMARK_QUERIES);
+        long fullNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long summaryBytes = runSummaryQueries(BENCHMARK_QUERIES);
+        long summaryNanos = System.nanoTime() - start;
+
+        assertTrue(summaryBytes < fullBytes);
+        System.out.printf("%d posts per user, %d-char content: full posts %.3fms and %d bytes/query, " +
+                          "summaries %.3fms and %d bytes/query%n",
+            BENCHMARK_POSTS_PER_USER, BENCHMARK_CONTENT_LENGTH,
+            fullNanos / 1e6 / BENCHMARK_QUERIES, fullBytes / BENCHMARK_QUERIES,
+            summaryNanos / 1e6 / BENCHMARK_QUERIES, summaryBytes / BENCHMARK_QUERIES);
+    }
+
+    /**
+     * Queries cycle through the users, as H2 reuses the result of a repeated
+     * identical query. Returns the bytes of column data read: 8 per id and
+     * timestamp, UTF-8 length of the text columns.
+     */
+    private long runFullQueries(int queries) {
+        long bytes = 0;
+        for (int i = 0; i < queries; i++) {
+            for (Post post : dbManager.findPostsByUserId(1L + i % BENCHMARK_USERS)) {
+                bytes += 24 + utf8Length(post.getTitle()) + utf8Length(post.getContent());
+            }
+        }
+        return bytes;
+    }
+
+    private long runSummaryQueries(int queries) {
+        long bytes = 0;
+        for (int i = 0; i < queries; i++) {
+            for (PostSummary summary : dbManager.findPostSummariesByUserId(1L + i % BENCHMARK_USERS)) {
+                bytes += 16 + utf8Length(summary.getTitle());
+            }
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
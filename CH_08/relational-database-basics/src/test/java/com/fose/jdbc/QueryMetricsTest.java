@@ -0,0 +1,147 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for per-statement instrumentation and the slow-query log, with a
+ * measurement of the instrumentation overhead.
+ */
+class QueryMetricsTest {
+    private static final int BENCHMARK_QUERIES = Integer.getInteger("bench.queries", 200_000);
+
+    private DatabaseManager dbManager;
+    private static int testCounter = 0;
+
+    private DatabaseManager newManager(String name, boolean queryMetrics, Duration slowQueryThreshold) {
+        testCounter++;
+        DatabaseConfig config = new DatabaseConfig("jdbc:h2:mem:" + name + testCounter);
+        config.setQueryMetricsEnabled(queryMetrics);
+        config.setSlowQueryThreshold(slowQueryThreshold);
+        DatabaseManager manager = new DatabaseManager(config);
+        manager.initializeSchema();
+        return manager;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dbManager != null) {
+            dbManager.close();
+        }
+    }
+
+    @Test
+    void shouldRecordLatencyAndRowsPerStatement() {
+        dbManager = newManager("metricsdb", true, null);
+        dbManager.createUser("alice", "alice@example.com");
+        dbManager.createUser("bob", "bob@example.com");
+        dbManager.findAllUsers();
+
+        QueryMetrics metrics = dbManager.getQueryMetrics();
+        StatementStats insert = metrics.getStatementStats("INSERT INTO users (username, email) VALUES (?, ?)");
+        assertEquals(2, insert.getExecutions());
+        assertEquals(2, insert.getRowsAffected());
+
+        StatementStats select = metrics.getStatementStats(
+            "SELECT id, username, email, created_at FROM users ORDER BY created_at DESC");
+        assertEquals(1, select.getExecutions());
+        assertEquals(2, select.getRowsReturned());
+        assertTrue(select.getLatency().getMaxNanos() > 0);
+
+        assertTrue(metrics.getConnectionAcquireTimes().getCount() >= 3, metrics.toString());
+    }
+
+    @Test
+    void shouldGroupStatementsByNormalizedSql() {
+        QueryMetrics metrics = new QueryMetrics();
+
+        assertEquals("SELECT * FROM t WHERE a = ? AND b IN (?, ?) AND c = col2",
+            metrics.normalize("SELECT *  FROM t\n WHERE a = 'it''s' AND b IN (1, -2.5) AND c = col2"));
+        assertSame(metrics.statement("DELETE FROM t WHERE id = 1"), metrics.statement("DELETE FROM t WHERE id = 2"));
+    }
+
+    @Test
+    void shouldLogSlowStatementsWithRedactedBinds() {
+        List<String> messages = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(SlowQueryLog.LOGGER_NAME);
+        logger.addHandler(handler);
+        // Capture only: a zero threshold makes every statement slow, which would flood the console
+        logger.setUseParentHandlers(false);
+        try {
+            dbManager = newManager("slowdb", false, Duration.ZERO);
+            dbManager.createUser("alice", "secret@example.com");
+        } finally {
+            logger.setUseParentHandlers(true);
+            logger.removeHandler(handler);
+        }
+
+        String insertLog = messages.stream()
+            .filter(message -> message.contains("INSERT INTO users"))
+            .findFirst()
+            .orElseThrow();
+        assertTrue(insertLog.contains("binds=[String(5), String(18)]"), insertLog);
+        assertFalse(insertLog.contains("alice"));
+        assertFalse(insertLog.contains("secret"));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void measureInstrumentationOverhead() {
+        DatabaseManager plain = newManager("plaindb", false, null);
+        dbManager = newManager("instrumenteddb", true, Duration.ofSeconds(1));
+        try {
+            for (DatabaseManager manager : List.of(plain, dbManager)) {
+                Long userId = manager.createUser("alice", "alice@example.com");
+                manager.createPost(userId, "Title", "Content");
+            }
+
+            // Warm up both paths, then alternate rounds and keep the best of each
+            runQueries(plain, BENCHMARK_QUERIES);
+            runQueries(dbManager, BENCHMARK_QUERIES);
+
+            long plainNanos = Long.MAX_VALUE;
+            long instrumentedNanos = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                plainNanos = Math.min(plainNanos, runQueries(plain, BENCHMARK_QUERIES));
+                instrumentedNanos = Math.min(instrumentedNanos, runQueries(dbManager, BENCHMARK_QUERIES));
+            }
+
+            System.out.printf("%d findPostsByUserId calls, best of 5: plain %.2fus/op, instrumented %.2fus/op " +
+                              "(+%.0f%%)%n",
+                BENCHMARK_QUERIES, plainNanos / 1e3 / BENCHMARK_QUERIES, instrumentedNanos / 1e3 / BENCHMARK_QUERIES,
+                100.0 * (instrumentedNanos - plainNanos) / plainNanos);
+        } finally {
+            plain.close();
+        }
+    }
+
+    private static long runQueries(DatabaseManager manager, int queries) {
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            manager.findPostsByUserId(1L);
+        }
+        return System.nanoTime() - start;
+    }
+}
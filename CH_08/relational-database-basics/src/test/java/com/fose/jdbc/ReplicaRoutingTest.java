@@ -0,0 +1,169 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for primary/replica routing. Each "replica" is a separate in-memory H2
+ * database, and replicate() stands in for real replication by copying rows
+ * from the primary.
+ */
+class ReplicaRoutingTest {
+    private static int testCounter = 0;
+
+    private String primaryUrl;
+    private String replica1Url;
+    private String replica2Url;
+    private DatabaseManager dbManager;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        primaryUrl = "jdbc:h2:mem:primary" + testCounter + ";DB_CLOSE_DELAY=-1";
+        replica1Url = "jdbc:h2:mem:replica" + testCounter + "a;DB_CLOSE_DELAY=-1";
+        replica2Url = "jdbc:h2:mem:replica" + testCounter + "b;DB_CLOSE_DELAY=-1";
+
+        // Replicas get their schema the same way the primary does
+        for (String replicaUrl : List.of(replica1Url, replica2Url)) {
+            DatabaseManager replica = new DatabaseManager(replicaUrl, 1);
+            replica.initializeSchema();
+            replica.close();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        dbManager.close();
+        for (String url : List.of(primaryUrl, replica1Url, replica2Url)) {
+            try (Connection conn = DriverManager.getConnection(url);
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    private DatabaseManager newManager(Duration readYourWritesWindow) {
+        DatabaseConfig config = new DatabaseConfig(primaryUrl);
+        config.setMaximumPoolSize(2);
+        config.addReplicaUrl(replica1Url);
+        config.addReplicaUrl(replica2Url);
+        config.setReadYourWritesWindow(readYourWritesWindow);
+        DatabaseManager manager = new DatabaseManager(config);
+        manager.initializeSchema();
+        return manager;
+    }
+
+    @Test
+    void readsShouldGoToReplicas() throws SQLException {
+        dbManager = newManager(Duration.ZERO);
+        dbManager.createUser("alice", "alice@example.com");
+
+        // Nothing replicated yet, so the replicas do not see the write
+        assertTrue(dbManager.findAllUsers().isEmpty());
+
+        replicate(primaryUrl, replica1Url);
+        replicate(primaryUrl, replica2Url);
+        assertEquals(1, dbManager.findAllUsers().size());
+    }
+
+    @Test
+    void readsShouldRoundRobinAcrossReplicas() throws SQLException {
+        dbManager = newManager(Duration.ZERO);
+        dbManager.createUser("alice", "alice@example.com");
+        replicate(primaryUrl, replica1Url);
+
+        // Only one replica is up to date: alternate reads see different states
+        int first = dbManager.findAllUsers().size();
+        int second = dbManager.findAllUsers().size();
+        assertNotEquals(first, second);
+
+        dbManager.findAllUsers();
+        assertTrue(dbManager.getReplicaPoolMetrics().get(0).getAcquireTimes().getCount() > 0);
+        assertTrue(dbManager.getReplicaPoolMetrics().get(1).getAcquireTimes().getCount() > 0);
+    }
+
+    @Test
+    void readYourWritesShouldStickToPrimary() throws InterruptedException {
+        dbManager = newManager(Duration.ofMillis(500));
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(userId, "Fresh", "Just written");
+
+        // Within the window this thread reads from the primary
+        assertEquals(1, dbManager.findAllUsers().size());
+        assertEquals(1, dbManager.findPostsByUserId(userId).size());
+
+        // Another thread did not write, so it is routed to a lagging replica
+        int[] seenByOtherThread = new int[1];
+        Thread other = new Thread(() -> seenByOtherThread[0] = dbManager.findAllUsers().size());
+        other.start();
+        other.join();
+        assertEquals(0, seenByOtherThread[0]);
+
+        // Once the window passes, reads go back to the replicas
+        Thread.sleep(600);
+        assertTrue(dbManager.findAllUsers().isEmpty());
+    }
+
+    @Test
+    void transactionsShouldUsePrimary() throws SQLException {
+        dbManager = newManager(Duration.ZERO);
+        dbManager.createUserAndPost("bob", "bob@example.com", "Title", "Content");
+
+        try (Connection conn = DriverManager.getConnection(primaryUrl);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM posts")) {
+            rs.next();
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    /**
+     * Replication stand-in: make the replica an exact copy of the primary
+     */
+    private static void replicate(String sourceUrl, String targetUrl) throws SQLException {
+        try (Connection source = DriverManager.getConnection(sourceUrl);
+             Connection target = DriverManager.getConnection(targetUrl);
+             Statement targetStmt = target.createStatement()) {
+            targetStmt.execute("DELETE FROM posts");
+            targetStmt.execute("DELETE FROM users");
+
+            try (Statement sourceStmt = source.createStatement();
+                 ResultSet rs = sourceStmt.executeQuery("SELECT id, username, email, created_at FROM users");
+                 PreparedStatement insert = target.prepareStatement(
+                     "INSERT INTO users (id, username, email, created_at) VALUES (?, ?, ?, ?)")) {
+                while (rs.next()) {
+                    insert.setLong(1, rs.getLong(1));
+                    insert.setString(2, rs.getString(2));
+                    insert.setString(3, rs.getString(3));
+                    insert.setTimestamp(4, rs.getTimestamp(4));
+                    insert.executeUpdate();
+                }
+            }
+
+            try (Statement sourceStmt = source.createStatement();
+                 ResultSet rs = sourceStmt.executeQuery(
+                     "SELECT id, user_id, title, content, published_at FROM posts");
+                 PreparedStatement insert = target.prepareStatement(
+                     "INSERT INTO posts (id, user_id, title, content, published_at) VALUES (?, ?, ?, ?, ?)")) {
+                while (rs.next()) {
+                    insert.setLong(1, rs.getLong(1));
+                    insert.setLong(2, rs.getLong(2));
+                    insert.setString(3, rs.getString(3));
+                    insert.setString(4, rs.getString(4));
+                    insert.setTimestamp(5, rs.getTimestamp(5));
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for positional row mapping and columnar scans, with a comparison
+ * against mapping every column by name.
+ */
+class RowMapperTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 100_000);
+    private static final String USERS_QUERY = "SELECT id, username, email, created_at FROM users ORDER BY id";
+
+    private DatabaseManager dbManager;
+    private String url;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        url = "jdbc:h2:mem:mapperdb" + testCounter;
+        dbManager = new DatabaseManager(url);
+        dbManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    @Test
+    void shouldMapRowsByPosition() {
+        Long userId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(userId, "Title", "Content");
+
+        User user = dbManager.findAllUsers().get(0);
+        assertEquals(userId, user.getId());
+        assertEquals("alice", user.getUsername());
+        assertNotNull(user.getCreatedAt());
+
+        Post post = dbManager.findPostsByUserId(userId).get(0);
+        assertEquals(userId, post.getUserId());
+        assertEquals("Content", post.getContent());
+        assertNotNull(post.getPublishedAt());
+    }
+
+    @Test
+    void columnarScanShouldMatchObjectMapping() {
+        dbManager.createUser("alice", "alice@example.com");
+        dbManager.createUser("bob", "bob@example.com");
+
+        List<User> users = dbManager.findAllUsers();
+        UserColumns columns = dbManager.scanUsersColumnar();
+
+        assertEquals(2, columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            long id = columns.getId(row);
+            User user = users.stream().filter(u -> u.getId() == id).findFirst().orElseThrow();
+            assertEquals(user.getUsername(), columns.getUsername(row));
+            assertEquals(user.getEmail(), columns.getEmail(row));
+            assertEquals(user.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli(), columns.getCreatedAtMillis(row));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.getId(2));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareNameAndPositionMapping() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO users (username, email) " +
+                 "SELECT 'user' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setInt(1, BENCHMARK_ROWS);
+            stmt.executeUpdate();
+        }
+
+        // Warm up every path before measuring
+        for (int i = 0; i < 3; i++) {
+            mapByName();
+            mapByPosition();
+            dbManager.scanUsersColumnar();
+        }
+
+        long[] byName = measure(this::mapByName);
+        long[] byPosition = measure(this::mapByPosition);
+        long[] columnar = measure(() -> dbManager.scanUsersColumnar().size());
+
+        System.out.printf("Mapping %d rows:%n", BENCHMARK_ROWS);
+        report("by name", byName);
+        report("by position", byPosition);
+        report("columnar", columnar);
+    }
+
+    private static void report(String label, long[] measurement) {
+        System.out.printf("  %-12s %7.1fms, %5.0f bytes/row%n",
+            label + ":", measurement[0] / 1e6, (double) measurement[1] / BENCHMARK_ROWS);
+    }
+
+    /**
+     * The mapping DatabaseManager used before: a name lookup per column per row
+     */
+    private int mapByName() {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(USERS_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            List<User> users = new ArrayList<>();
+            while (rs.next()) {
+                users.add(new User(
+                    rs.getLong("id"),
+                    rs.getString("username"),
+                    rs.getString("email"),
+                    rs.getTimestamp("created_at").toLocalDateTime()
+                ));
+            }
+            return users.size();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int mapByPosition() {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(USERS_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            return RowMappers.mapAll(rs, RowMappers.USER).size();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Wall time and bytes allocated by the current thread
+     */
+    private static long[] measure(Runnable scan) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        scan.run();
+        long elapsed = System.nanoTime() - start;
+        return new long[]{elapsed, threads.getCurrentThreadAllocatedBytes() - allocatedBefore};
+    }
+}
@@ -0,0 +1,89 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for routing users and posts across several H2 databases.
+ */
+class ShardedDatabaseManagerTest {
+    private static final int SHARDS = 3;
+
+    private ShardedDatabaseManager shardedManager;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        shardedManager = new ShardedDatabaseManager(List.of(
+            "jdbc:h2:mem:shard" + testCounter + "a",
+            "jdbc:h2:mem:shard" + testCounter + "b",
+            "jdbc:h2:mem:shard" + testCounter + "c"
+        ), 2);
+        shardedManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedManager.close();
+    }
+
+    @Test
+    void shouldSpreadUsersWithDisjointIds() {
+        Set<Long> ids = new HashSet<>();
+        int[] usersPerShard = new int[SHARDS];
+        for (int i = 0; i < 60; i++) {
+            String username = "user" + i;
+            Long userId = shardedManager.createUser(username, username + "@example.com");
+            assertTrue(ids.add(userId), "Ids must be unique across shards");
+            assertEquals(shardedManager.shardIndexForUsername(username), shardedManager.shardIndexForUser(userId));
+            usersPerShard[shardedManager.shardIndexForUser(userId)]++;
+        }
+
+        for (int count : usersPerShard) {
+            assertTrue(count > 0, "Every shard should receive users");
+        }
+    }
+
+    @Test
+    void shouldKeepPostsOnTheUsersShard() {
+        Long aliceId = shardedManager.createUser("alice", "alice@example.com");
+        Long bobId = shardedManager.createUserAndPost("bob", "bob@example.com", "Hello", "From bob");
+        shardedManager.createPost(aliceId, "First", "From alice");
+        shardedManager.createPost(aliceId, "Second", "From alice");
+
+        assertEquals(2, shardedManager.findPostsByUserId(aliceId).size());
+        List<Post> bobPosts = shardedManager.findPostsByUserId(bobId);
+        assertEquals(1, bobPosts.size());
+        assertEquals("Hello", bobPosts.get(0).getTitle());
+    }
+
+    @Test
+    void shouldRejectDuplicateUsernames() {
+        shardedManager.createUser("alice", "alice@example.com");
+
+        assertThrows(RuntimeException.class, () -> shardedManager.createUser("alice", "other@example.com"));
+    }
+
+    @Test
+    void shouldMergeUsersFromAllShardsNewestFirst() throws InterruptedException {
+        for (int i = 0; i < 12; i++) {
+            shardedManager.createUser("user" + i, "user" + i + "@example.com");
+            Thread.sleep(2);
+        }
+
+        List<User> users = shardedManager.findAllUsers();
+
+        assertEquals(12, users.size());
+        for (int i = 1; i < users.size(); i++) {
+            assertFalse(users.get(i).getCreatedAt().isAfter(users.get(i - 1).getCreatedAt()));
+        }
+        assertEquals("user11", users.get(0).getUsername());
+        assertEquals("user0", users.get(11).getUsername());
+    }
+}
@@ -0,0 +1,150 @@
+package com.fose.jdbc;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the incrementally maintained per-user post stats, with a
+ * comparison against aggregating the posts table.
+ */
+class UserPostStatsTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 200_000);
+    private static final int BENCHMARK_USERS = 1_000;
+
+    private DatabaseManager dbManager;
+    private String url;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() {
+        testCounter++;
+        url = "jdbc:h2:mem:statsdb" + testCounter;
+        dbManager = new DatabaseManager(url);
+        dbManager.initializeSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.close();
+    }
+
+    @Test
+    void shouldCountPostsAsTheyAreCreated() {
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        assertEquals(0, dbManager.getUserPostStats(aliceId).getPostCount());
+        assertNull(dbManager.getUserPostStats(aliceId).getLatestPostAt());
+
+        dbManager.createPost(aliceId, "First", "Content");
+        dbManager.createPost(aliceId, "Second", "Content");
+        Long bobId = dbManager.createUserAndPost("bob", "bob@example.com", "Hello", "World");
+        dbManager.createUsersAndPosts(List.of(new NewUserPost("carol", "carol@example.com", "Hi", "There")));
+
+        UserPostStats alice = dbManager.getUserPostStats(aliceId);
+        assertEquals(2, alice.getPostCount());
+        assertEquals(dbManager.findPostsByUserId(aliceId).get(0).getPublishedAt(), alice.getLatestPostAt());
+        assertEquals(1, dbManager.getUserPostStats(bobId).getPostCount());
+
+        List<UserPostStats> mostActive = dbManager.findMostActiveUsers(2);
+        assertEquals(2, mostActive.size());
+        assertEquals(aliceId, mostActive.get(0).getUserId());
+        assertTrue(dbManager.verifyUserPostStats().isEmpty());
+    }
+
+    @Test
+    void shouldLeaveStatsUnchangedWhenATransactionFails() {
+        dbManager.createUserAndPost("alice", "alice@example.com", "Title", "Content");
+
+        assertThrows(RuntimeException.class,
+            () -> dbManager.createUserAndPost("alice", "other@example.com", "Title", "Content"));
+        assertThrows(RuntimeException.class, () -> dbManager.createPost(999L, "Orphan", "Content"));
+
+        assertEquals(1, dbManager.findMostActiveUsers(10).size());
+        assertTrue(dbManager.verifyUserPostStats().isEmpty());
+    }
+
+    @Test
+    void shouldDetectAndRepairDrift() throws SQLException {
+        Long aliceId = dbManager.createUser("alice", "alice@example.com");
+        dbManager.createPost(aliceId, "Tracked", "Content");
+
+        // Written around DatabaseManager, so the stats do not know about it
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO posts (user_id, title, content) VALUES (?, 'Untracked', 'Content')")) {
+            stmt.setLong(1, aliceId);
+            stmt.executeUpdate();
+        }
+
+        assertEquals(List.of(aliceId), dbManager.verifyUserPostStats());
+        assertEquals(1, dbManager.rebuildUserPostStats());
+        assertTrue(dbManager.verifyUserPostStats().isEmpty());
+        assertEquals(2, dbManager.getUserPostStats(aliceId).getPostCount());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareAggregationAndSummaryTable() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url)) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO users (username, email) " +
+                     "SELECT 'user' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, ?)")) {
+                stmt.setInt(1, BENCHMARK_USERS);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO posts (user_id, title, content) " +
+                     "SELECT MOD(X, ?) + 1, 'Post ' || X, 'Content' FROM SYSTEM_RANGE(1, ?)")) {
+                stmt.setInt(1, BENCHMARK_USERS);
+                stmt.setInt(2, BENCHMARK_ROWS);
+                stmt.executeUpdate();
+            }
+        }
+        dbManager.rebuildUserPostStats();
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < 3; i++) {
+            topPostersByAggregation(10);
+            dbManager.findMostActiveUsers(10);
+        }
+
+        long start = System.nanoTime();
+        List<Long> aggregated = topPostersByAggregation(10);
+        long aggregationNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<UserPostStats> summarized = dbManager.findMostActiveUsers(10);
+        long summaryNanos = System.nanoTime() - start;
+
+        assertEquals(aggregated.size(), summarized.size());
+        System.out.printf("Top posters over %d posts by %d users: GROUP BY %.2fms, summary table %.2fms%n",
+            BENCHMARK_ROWS, BENCHMARK_USERS, aggregationNanos / 1e6, summaryNanos / 1e6);
+    }
+
+    /**
+     * The dashboard query before the summary table existed
+     */
+    private List<Long> topPostersByAggregation(int limit) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT user_id, COUNT(*), MAX(published_at) FROM posts " +
+                 "GROUP BY user_id ORDER BY COUNT(*) DESC, MAX(published_at) DESC LIMIT ?")) {
+            stmt.setInt(1, limit);
+            List<Long> userIds = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    userIds.add(rs.getLong(1));
+                }
+            }
+            return userIds;
+        }
+    }
+}
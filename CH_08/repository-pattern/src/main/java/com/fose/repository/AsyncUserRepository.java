@@ -0,0 +1,127 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over a {@link UserRepository}.
+ *
+ * Each call runs on its own virtual thread, so callers can overlap repository
+ * calls with each other and with other I/O. A semaphore sized to the
+ * connection pool caps how many calls touch JDBC at once; extra calls park
+ * cheaply on their virtual thread instead of queueing inside the pool.
+ */
+public class AsyncUserRepository implements AutoCloseable {
+    private final UserRepository repository;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrentCalls;
+
+    /**
+     * Bound calls by the capacity of the pool the repository reads from, as
+     * configured when this facade is created
+     *
+     * @param pool the connection pool backing {@code repository}
+     */
+    public AsyncUserRepository(UserRepository repository, JdbcConnectionPool pool) {
+        this(repository, pool.getMaxConnections());
+    }
+
+    /**
+     * For repositories over other data sources. Nothing checks the bound
+     * against the pool: pass its capacity, since a larger bound lets calls
+     * queue inside the pool again and a smaller one leaves connections idle.
+     *
+     * @param maxConcurrentCalls the data source's pool capacity
+     */
+    public AsyncUserRepository(UserRepository repository, int maxConcurrentCalls) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("At least one concurrent call is required");
+        }
+        this.repository = repository;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    public CompletableFuture<List<User>> findActiveUsers() {
+        return submit(repository::findActiveUsers);
+    }
+
+    public CompletableFuture<List<User>> findActiveUsersPage(User after, int pageSize) {
+        return submit(() -> repository.findActiveUsersPage(after, pageSize));
+    }
+
+    /**
+     * @return the saved user, with its generated id set
+     */
+    public CompletableFuture<User> save(User user) {
+        return submit(() -> {
+            repository.save(user);
+            return user;
+        });
+    }
+
+    /**
+     * @return the upserted user, with the id of its row set
+     */
+    public CompletableFuture<User> upsert(User user) {
+        return submit(() -> {
+            repository.upsert(user);
+            return user;
+        });
+    }
+
+    public CompletableFuture<SaveAllResult> saveAll(Collection<User> users) {
+        return submit(() -> repository.saveAll(users));
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Calls currently holding a permit, i.e. using or waiting on a pooled connection
+     */
+    public int getInFlightCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * Calls parked while waiting for a permit
+     */
+    public int getQueuedCalls() {
+        return permits.getQueueLength();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Stop accepting calls; running calls are allowed to finish
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
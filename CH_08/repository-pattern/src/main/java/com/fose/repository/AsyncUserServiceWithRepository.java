@@ -0,0 +1,47 @@
+package com.fose.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link UserServiceWithRepository} for callers that overlap user calls with
+ * other I/O. The business rules are the same; input is validated before
+ * anything is submitted, so invalid input throws instead of failing a future.
+ */
+public class AsyncUserServiceWithRepository {
+    private final AsyncUserRepository userRepository;
+
+    public AsyncUserServiceWithRepository(AsyncUserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public CompletableFuture<List<User>> getActiveUsers() {
+        return userRepository.findActiveUsers();
+    }
+
+    /**
+     * @return the registered user, with its generated id set
+     */
+    public CompletableFuture<User> registerUser(String username, String email) {
+        UserServiceWithRepository.validate(username, email);
+
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setActive(true);
+
+        return userRepository.save(user);
+    }
+
+    public CompletableFuture<SaveAllResult> registerUsers(Collection<User> users) {
+        for (User user : users) {
+            UserServiceWithRepository.validate(user.getUsername(), user.getEmail());
+        }
+        for (User user : users) {
+            user.setActive(true);
+        }
+
+        return userRepository.saveAll(users);
+    }
+}
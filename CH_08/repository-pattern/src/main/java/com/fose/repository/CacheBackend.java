@@ -0,0 +1,16 @@
+package com.fose.repository;
+
+/**
+ * Storage behind {@link CachingUserRepository}. Implementations decide
+ * eviction and expiry and must be safe for concurrent use.
+ */
+public interface CacheBackend<K, V> {
+    /**
+     * @return the cached value, or null when absent or expired
+     */
+    V get(K key);
+
+    void put(K key, V value);
+
+    void invalidateAll();
+}
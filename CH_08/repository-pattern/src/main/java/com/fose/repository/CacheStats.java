@@ -0,0 +1,45 @@
+package com.fose.repository;
+
+/**
+ * Snapshot of a {@link CachingUserRepository}'s hit/miss counters
+ */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long invalidations;
+
+    public CacheStats(long hits, long misses, long invalidations) {
+        this.hits = hits;
+        this.misses = misses;
+        this.invalidations = invalidations;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Number of writes that cleared the cache
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Fraction of lookups served from the cache; 0 before the first lookup
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, invalidations=%d, hitRate=%.2f}",
+            hits, misses, invalidations, getHitRate());
+    }
+}
@@ -0,0 +1,199 @@
+package com.fose.repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Decorator that caches {@link #findActiveUsers()} and, per cursor and page
+ * size, {@link #findActiveUsersPage} in front of another repository. It is a
+ * {@link UserRepository} itself, so services such as
+ * {@link UserServiceWithRepository} take it unchanged.
+ *
+ * Users are mutable, so the cache keeps its own copies and hands every caller
+ * fresh ones: changing a returned user without saving it never changes what
+ * later readers get.
+ *
+ * Every write clears the cache once the delegate returns. Any write method
+ * added to {@link UserRepository} must be overridden here to do the same.
+ */
+public class CachingUserRepository extends UserRepository {
+    private static final String ACTIVE_USERS = "findActiveUsers";
+    private static final String ACTIVE_USERS_PAGE = "findActiveUsersPage:";
+
+    private final UserRepository delegate;
+    private final CacheBackend<String, List<User>> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    // Bumped by every write, so a read that overlapped one does not cache its result
+    private long generation;
+
+    public CachingUserRepository(UserRepository delegate, int maxEntries, Duration ttl) {
+        this(delegate, new LruCacheBackend<>(maxEntries, ttl));
+    }
+
+    public CachingUserRepository(UserRepository delegate, CacheBackend<String, List<User>> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * Active users from the cache when present, as an unmodifiable list of
+     * copies valid until the next write or expiry
+     */
+    @Override
+    public List<User> findActiveUsers() {
+        return cached(ACTIVE_USERS, delegate::findActiveUsers);
+    }
+
+    /**
+     * Not cached: projections are for jobs reading every active user once
+     */
+    @Override
+    public long[] findActiveUserIds() {
+        return delegate.findActiveUserIds();
+    }
+
+    @Override
+    public CompactStringArray findActiveUsernames() {
+        return delegate.findActiveUsernames();
+    }
+
+    /**
+     * Cached per cursor and page size, so the first pages everyone reads stay
+     * hot while the backend's size bound evicts pages walked only once
+     */
+    @Override
+    public List<User> findActiveUsersPage(User after, int pageSize) {
+        String key = ACTIVE_USERS_PAGE + pageSize +
+                     (after == null ? "" : ":" + after.getId() + ":" + after.getCreatedAt());
+        return cached(key, () -> delegate.findActiveUsersPage(after, pageSize));
+    }
+
+    @Override
+    public Stream<User> streamActiveUsers(int pageSize) {
+        return delegate.streamActiveUsers(pageSize);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return delegate.existsByUsername(username);
+    }
+
+    @Override
+    public void forEachUsername(Consumer<String> action) {
+        delegate.forEachUsername(action);
+    }
+
+    @Override
+    public void createIndexes() {
+        delegate.createIndexes();
+    }
+
+    @Override
+    public void save(User user) {
+        try {
+            delegate.save(user);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void update(User user) {
+        try {
+            delegate.update(user);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public SaveAllResult saveAll(Collection<User> users) {
+        try {
+            return delegate.saveAll(users);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public SaveAllResult saveAll(Collection<User> users, int chunkSize) {
+        try {
+            return delegate.saveAll(users, chunkSize);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void upsert(User user) {
+        try {
+            delegate.upsert(user);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void upsertAll(List<User> users) {
+        try {
+            delegate.upsertAll(users);
+        } finally {
+            invalidate();
+        }
+    }
+
+    /**
+     * Clears the cache once per unit of work, not per buffered change
+     */
+    @Override
+    public void applyChanges(List<User> inserts, List<User> updates) {
+        try {
+            delegate.applyChanges(inserts, updates);
+        } finally {
+            invalidate();
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        return new CacheStats(hits.sum(), misses.sum(), invalidations.sum());
+    }
+
+    private List<User> cached(String key, Supplier<List<User>> query) {
+        List<User> cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return copies(cached);
+        }
+        misses.increment();
+
+        long before = currentGeneration();
+        List<User> users = copies(query.get());
+        synchronized (this) {
+            if (generation == before) {
+                cache.put(key, copies(users));
+            }
+        }
+        return users;
+    }
+
+    private static List<User> copies(List<User> users) {
+        return users.stream().map(User::new).toList();
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized void invalidate() {
+        generation++;
+        cache.invalidateAll();
+        invalidations.increment();
+    }
+}
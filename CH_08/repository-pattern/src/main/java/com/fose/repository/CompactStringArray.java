@@ -0,0 +1,123 @@
+package com.fose.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Immutable array of strings packed into one UTF-8 byte array plus an
+ * offset array: two objects however many strings it holds, instead of a
+ * {@link String} and its backing array per element. Strings are decoded on
+ * {@link #get}, so callers that only count, compare or write the bytes out
+ * never create them.
+ */
+public final class CompactStringArray {
+    private final byte[] data;
+    // offsets[i] is where string i starts; offsets[size] is the end of the last one
+    private final int[] offsets;
+    private final int size;
+
+    private CompactStringArray(byte[] data, int[] offsets, int size) {
+        this.data = data;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String get(int index) {
+        checkIndex(index);
+        return new String(data, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether element {@code index} equals {@code value}, compared without decoding the element
+     */
+    public boolean contentEquals(int index, String value) {
+        checkIndex(index);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return Arrays.equals(data, offsets[index], offsets[index + 1], bytes, 0, bytes.length);
+    }
+
+    public int getUtf8Length(int index) {
+        checkIndex(index);
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Bytes held by the two arrays, headers excluded
+     */
+    public long getMemoryBytes() {
+        return data.length + 4L * offsets.length;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    /**
+     * Appends strings straight into the byte array, growing it by doubling.
+     * Encoding is done here rather than with {@link String#getBytes}, so
+     * adding a string allocates nothing unless an array has to grow.
+     */
+    static final class Builder {
+        private byte[] data;
+        private int[] offsets;
+        private int size;
+        private int length;
+
+        Builder(int expectedStrings, int expectedBytesPerString) {
+            data = new byte[Math.max(16, expectedStrings * expectedBytesPerString)];
+            offsets = new int[Math.max(2, expectedStrings + 1)];
+        }
+
+        Builder add(String value) {
+            // Worst case is 3 bytes per UTF-16 char; a surrogate pair takes 4 bytes for 2 chars
+            ensureData(length + 3 * value.length());
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    data[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    data[length++] = (byte) (0xC0 | c >> 6);
+                    data[length++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                           && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    data[length++] = (byte) (0xF0 | codePoint >> 18);
+                    data[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    data[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    data[length++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, replaced with '?' as String.getBytes does
+                    data[length++] = '?';
+                } else {
+                    data[length++] = (byte) (0xE0 | c >> 12);
+                    data[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    data[length++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            offsets[++size] = length;
+            return this;
+        }
+
+        /**
+         * Trims both arrays to size
+         */
+        CompactStringArray build() {
+            return new CompactStringArray(Arrays.copyOf(data, length), Arrays.copyOf(offsets, size + 1), size);
+        }
+
+        private void ensureData(int capacity) {
+            if (capacity > data.length) {
+                data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.fose.repository;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link UserRepository#saveAll}: chunks commit independently, so
+ * some users can be saved while the chunks listed here were rolled back.
+ */
+public class SaveAllResult {
+    private final int savedCount;
+    private final List<ChunkFailure> failures;
+
+    public SaveAllResult(int savedCount, List<ChunkFailure> failures) {
+        this.savedCount = savedCount;
+        this.failures = List.copyOf(failures);
+    }
+
+    public int getSavedCount() {
+        return savedCount;
+    }
+
+    public List<ChunkFailure> getFailures() {
+        return failures;
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SaveAllResult{savedCount=" + savedCount + ", failedChunks=" + failures.size() + '}';
+    }
+
+    /**
+     * A chunk that was rolled back; its users keep a null id
+     */
+    public static class ChunkFailure {
+        private final int chunkIndex;
+        private final List<User> users;
+        private final Exception cause;
+
+        public ChunkFailure(int chunkIndex, List<User> users, Exception cause) {
+            this.chunkIndex = chunkIndex;
+            this.users = List.copyOf(users);
+            this.cause = cause;
+        }
+
+        public int getChunkIndex() {
+            return chunkIndex;
+        }
+
+        public List<User> getUsers() {
+            return users;
+        }
+
+        public Exception getCause() {
+            return cause;
+        }
+    }
+}
@@ -19,6 +19,14 @@ public class User {
         this.active = true;
     }
 
+    public User(User other) {
+        this.id = other.id;
+        this.username = other.username;
+        this.email = other.email;
+        this.active = other.active;
+        this.createdAt = other.createdAt;
+    }
+
     // Getters and setters
     public Long getId() {
         return id;
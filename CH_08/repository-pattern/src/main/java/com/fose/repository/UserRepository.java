@@ -3,7 +3,16 @@ package com.fose.repository;
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * AFTER: Repository pattern - encapsulates all data access logic
@@ -15,12 +24,23 @@ import java.util.List;
  * - Single responsibility: only handles data persistence
  */
 public class UserRepository {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final int PROJECTION_INITIAL_CAPACITY = 1_024;
+
     private final DataSource dataSource;
 
     public UserRepository(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    /**
+     * For decorators, which delegate every method rather than use a data source
+     */
+    protected UserRepository() {
+        this.dataSource = null;
+    }
+
     /**
      * Find all active users - data access logic encapsulated
      */
@@ -33,13 +53,9 @@ public class UserRepository {
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
+            UserRowMapper mapper = new UserRowMapper(rs);
             while (rs.next()) {
-                User user = new User(
-                    rs.getLong("id"),
-                    rs.getString("username"),
-                    rs.getString("email")
-                );
-                users.add(user);
+                users.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             throw new RepositoryException("Failed to find active users", e);
@@ -48,6 +64,186 @@ public class UserRepository {
         return users;
     }
 
+    /**
+     * Ids of all active users, newest first, read into a primitive array
+     * without creating a {@link User} or boxed id per row
+     */
+    public long[] findActiveUserIds() {
+        String query = "SELECT id FROM users WHERE active = true ORDER BY active, created_at DESC, id DESC";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+
+            long[] ids = new long[PROJECTION_INITIAL_CAPACITY];
+            int count = 0;
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = rs.getLong(1);
+            }
+            return Arrays.copyOf(ids, count);
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to find active user ids", e);
+        }
+    }
+
+    /**
+     * Usernames of all active users, newest first, packed into one
+     * {@link CompactStringArray} as they are read
+     */
+    public CompactStringArray findActiveUsernames() {
+        String query = "SELECT username FROM users WHERE active = true ORDER BY active, created_at DESC, id DESC";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+
+            CompactStringArray.Builder usernames = new CompactStringArray.Builder(PROJECTION_INITIAL_CAPACITY, 16);
+            while (rs.next()) {
+                usernames.add(rs.getString(1));
+            }
+            return usernames.build();
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to find active usernames", e);
+        }
+    }
+
+    /**
+     * One page of active users, newest first, using keyset pagination: the
+     * next page starts after the last user of the previous one, so deep pages
+     * cost the same as the first. Returned users carry their creation time.
+     *
+     * @param after last user of the previous page, or null for the first page.
+     *              A saved user without its creation time, as {@link #save}
+     *              leaves it, pages from the creation time stored in its row.
+     */
+    public List<User> findActiveUsersPage(User after, int pageSize) {
+        if (after != null && after.getId() == null) {
+            throw new IllegalArgumentException("The user to page after must have an id");
+        }
+        // A null created_at would make the row comparison unknown and the page silently empty
+        boolean readCursorTime = after != null && after.getCreatedAt() == null;
+        String cursor = readCursorTime ? "((SELECT created_at FROM users WHERE id = ?), ?)" : "(?, ?)";
+        // ORDER BY names "active" so H2 reads the covering index in order instead of sorting
+        String query = "SELECT id, username, email, created_at FROM users WHERE active = true " +
+                      (after != null ? "AND (created_at, id) < " + cursor + " " : "") +
+                      "ORDER BY active, created_at DESC, id DESC LIMIT ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            int index = 1;
+            if (after != null) {
+                if (readCursorTime) {
+                    stmt.setLong(index++, after.getId());
+                } else {
+                    stmt.setObject(index++, after.getCreatedAt());
+                }
+                stmt.setLong(index++, after.getId());
+            }
+            stmt.setInt(index, pageSize);
+
+            List<User> users = new ArrayList<>(pageSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                UserRowMapper mapper = new UserRowMapper(rs, true);
+                while (rs.next()) {
+                    users.add(mapper.mapRow(rs));
+                }
+            }
+            return users;
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to find active users", e);
+        }
+    }
+
+    /**
+     * All active users, newest first, fetched a page at a time as the stream
+     * is consumed. At most one page is in memory and no connection is held
+     * between pages, so the stream needs no closing.
+     */
+    public Stream<User> streamActiveUsers(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        Iterator<User> iterator = new Iterator<>() {
+            private List<User> page = findActiveUsersPage(null, pageSize);
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                if (position == page.size() && page.size() == pageSize) {
+                    page = findActiveUsersPage(page.get(page.size() - 1), pageSize);
+                    position = 0;
+                }
+                return position < page.size();
+            }
+
+            @Override
+            public User next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Create the covering index behind the paged and streaming reads: every
+     * selected column is in the index, so rows are read without touching the table
+     */
+    public void createIndexes() {
+        String sql = "CREATE INDEX IF NOT EXISTS idx_users_active_created " +
+                     "ON users (active, created_at DESC, id DESC, username, email)";
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to create indexes", e);
+        }
+    }
+
+    /**
+     * Whether any user, active or not, has this username
+     */
+    public boolean existsByUsername(String username) {
+        String query = "SELECT 1 FROM users WHERE username = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to look up username", e);
+        }
+    }
+
+    /**
+     * Pass every username, active or not, to {@code action} without collecting them
+     */
+    public void forEachUsername(Consumer<String> action) {
+        String query = "SELECT username FROM users";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                action.accept(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to read usernames", e);
+        }
+    }
+
     /**
      * Save a new user
      */
@@ -72,6 +268,248 @@ public class UserRepository {
         }
     }
 
+    /**
+     * Write the user's username, email and active flag to its existing row
+     */
+    public void update(User user) {
+        String sql = "UPDATE users SET username = ?, email = ?, active = ? WHERE id = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            bindUpdate(stmt, user);
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("No user with id " + user.getId());
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to update user", e);
+        }
+    }
+
+    /**
+     * Save new users with batched inserts of {@value #DEFAULT_CHUNK_SIZE}
+     *
+     * @see #saveAll(Collection, int)
+     */
+    public SaveAllResult saveAll(Collection<User> users) {
+        return saveAll(users, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Save new users in chunks, each one JDBC batch committed in its own
+     * transaction. Generated ids are set on the users in order. A failing
+     * chunk is rolled back and reported, and the remaining chunks still run.
+     */
+    public SaveAllResult saveAll(Collection<User> users, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        List<User> all = List.copyOf(users);
+        List<SaveAllResult.ChunkFailure> failures = new ArrayList<>();
+        int saved = 0;
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int start = 0; start < all.size(); start += chunkSize) {
+                    List<User> chunk = all.subList(start, Math.min(start + chunkSize, all.size()));
+                    try {
+                        long[] ids = insertChunk(conn, chunk);
+                        conn.commit();
+                        for (int i = 0; i < ids.length; i++) {
+                            chunk.get(i).setId(ids[i]);
+                        }
+                        saved += chunk.size();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        failures.add(new SaveAllResult.ChunkFailure(start / chunkSize, chunk, e));
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to save users", e);
+        }
+        return new SaveAllResult(saved, failures);
+    }
+
+    /**
+     * Ids are handed back only after the commit, so a rolled-back chunk leaves its users untouched
+     */
+    private long[] insertChunk(Connection conn, List<User> chunk) throws SQLException {
+        String sql = "INSERT INTO users (username, email, active) VALUES (?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, new String[] {"id"})) {
+            for (User user : chunk) {
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getEmail());
+                stmt.setBoolean(3, user.isActive());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            long[] ids = new long[chunk.size()];
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length; i++) {
+                    if (!rs.next()) {
+                        throw new SQLException("Missing generated key for " + chunk.get(i).getUsername());
+                    }
+                    ids[i] = rs.getLong(1);
+                }
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Apply the changes buffered by a {@link UserUnitOfWork} in one transaction
+     * on one connection: the inserts as one JDBC batch, then the updates as
+     * another. Either every change commits or none does; generated ids are set
+     * on the inserted users only after the commit.
+     */
+    public void applyChanges(List<User> inserts, List<User> updates) {
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long[] ids = inserts.isEmpty() ? new long[0] : insertChunk(conn, inserts);
+                if (!updates.isEmpty()) {
+                    updateBatch(conn, updates);
+                }
+                conn.commit();
+                for (int i = 0; i < ids.length; i++) {
+                    inserts.get(i).setId(ids[i]);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to apply changes", e);
+        }
+    }
+
+    private void updateBatch(Connection conn, List<User> users) throws SQLException {
+        String sql = "UPDATE users SET username = ?, email = ?, active = ? WHERE id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (User user : users) {
+                bindUpdate(stmt, user);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                // A row deleted since it was read; committing the rest would lose the change silently
+                if (counts[i] == 0) {
+                    throw new SQLException("No user with id " + users.get(i).getId());
+                }
+            }
+        }
+    }
+
+    private static void bindUpdate(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getUsername());
+        stmt.setString(2, user.getEmail());
+        stmt.setBoolean(3, user.isActive());
+        stmt.setLong(4, user.getId());
+    }
+
+    /**
+     * Insert the user, or update the existing user with the same username, in a
+     * single round trip. The id of the inserted or updated row is set on the user.
+     */
+    public void upsert(User user) {
+        try (Connection conn = dataSource.getConnection()) {
+            long[] ids;
+            try {
+                ids = upsert(conn, List.of(user));
+            } catch (SQLException e) {
+                if (!isDuplicateKey(e)) {
+                    throw e;
+                }
+                // Lost an insert race to a concurrent upsert; the row exists now, so this attempt updates it
+                ids = upsert(conn, List.of(user));
+            }
+            user.setId(ids[0]);
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to upsert user", e);
+        }
+    }
+
+    /**
+     * Upsert all users as one batch in one transaction. Each user's id is set
+     * only after the commit, so a failed call leaves the users untouched.
+     */
+    public void upsertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long[] ids;
+                try {
+                    ids = upsert(conn, users);
+                } catch (SQLException e) {
+                    if (!isDuplicateKey(e)) {
+                        throw e;
+                    }
+                    conn.rollback();
+                    ids = upsert(conn, users);
+                }
+                conn.commit();
+                for (int i = 0; i < ids.length; i++) {
+                    users.get(i).setId(ids[i]);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RepositoryException("Failed to upsert users", e);
+        }
+    }
+
+    /**
+     * @return the id of each user's row, in order
+     */
+    private long[] upsert(Connection conn, List<User> users) throws SQLException {
+        String sql = "MERGE INTO users (username, email, active) KEY (username) VALUES (?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, new String[] {"id"})) {
+            for (User user : users) {
+                stmt.setString(1, user.getUsername());
+                stmt.setString(2, user.getEmail());
+                stmt.setBoolean(3, user.isActive());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            // One key per statement, in batch order, whether the row was inserted or updated
+            long[] ids = new long[users.size()];
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length; i++) {
+                    if (!rs.next()) {
+                        throw new SQLException("Missing generated key for " + users.get(i).getUsername());
+                    }
+                    ids[i] = rs.getLong(1);
+                }
+            }
+            return ids;
+        }
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        return "23505".equals(e.getSQLState());
+    }
+
     /**
      * Custom exception for repository operations
      */
@@ -0,0 +1,46 @@
+package com.fose.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Maps rows of a users query to User objects.
+ *
+ * Column positions are looked up once when the mapper is created for a result
+ * set; each row is then read by index rather than by name.
+ */
+class UserRowMapper {
+    private final int id;
+    private final int username;
+    private final int email;
+    private final int createdAt;
+
+    UserRowMapper(ResultSet rs) throws SQLException {
+        this(rs, false);
+    }
+
+    /**
+     * @param withCreatedAt also map {@code created_at}, which the query must select.
+     *                      An explicit flag rather than a metadata lookup: H2's
+     *                      {@code getMetaData()} costs a catalog query per result set.
+     */
+    UserRowMapper(ResultSet rs, boolean withCreatedAt) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.username = rs.findColumn("username");
+        this.email = rs.findColumn("email");
+        this.createdAt = withCreatedAt ? rs.findColumn("created_at") : 0;
+    }
+
+    User mapRow(ResultSet rs) throws SQLException {
+        User user = new User(
+            rs.getLong(id),
+            rs.getString(username),
+            rs.getString(email)
+        );
+        if (createdAt > 0) {
+            user.setCreatedAt(rs.getObject(createdAt, LocalDateTime.class));
+        }
+        return user;
+    }
+}
@@ -1,5 +1,6 @@
 package com.fose.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,9 +14,20 @@ import java.util.List;
  */
 public class UserServiceWithRepository {
     private final UserRepository userRepository;
+    private final UsernameBloomFilter takenUsernames;
 
     public UserServiceWithRepository(UserRepository userRepository) {
+        this(userRepository, null);
+    }
+
+    /**
+     * @param takenUsernames filter seeded with the existing usernames (see
+     *                       {@link UsernameBloomFilter#seededFrom}); kept up to
+     *                       date by this service's registrations
+     */
+    public UserServiceWithRepository(UserRepository userRepository, UsernameBloomFilter takenUsernames) {
         this.userRepository = userRepository;
+        this.takenUsernames = takenUsernames;
     }
 
     /**
@@ -31,11 +43,11 @@ public class UserServiceWithRepository {
      */
     public void registerUser(String username, String email) {
         // Validate business rules
-        if (username == null || username.trim().isEmpty()) {
-            throw new IllegalArgumentException("Username cannot be empty");
-        }
-        if (email == null || !email.contains("@")) {
-            throw new IllegalArgumentException("Invalid email address");
+        validate(username, email);
+        if (takenUsernames != null && takenUsernames.mightContain(username)
+                && userRepository.existsByUsername(username)) {
+            // A duplicate, typically a retried signup: rejected without a failing INSERT
+            throw new IllegalArgumentException("Username already taken");
         }
 
         // Create and save user through repository
@@ -45,5 +57,82 @@ public class UserServiceWithRepository {
         user.setActive(true);
 
         userRepository.save(user);
+        if (takenUsernames != null) {
+            takenUsernames.put(username);
+        }
+    }
+
+    /**
+     * Same rules as {@link #registerUser(String, String)}, but the insert is
+     * buffered in {@code unitOfWork}; the returned user gets its id when the
+     * unit of work commits
+     */
+    public User registerUser(String username, String email, UserUnitOfWork unitOfWork) {
+        validate(username, email);
+        if (takenUsernames != null && takenUsernames.mightContain(username)
+                && userRepository.existsByUsername(username)) {
+            throw new IllegalArgumentException("Username already taken");
+        }
+
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setActive(true);
+
+        unitOfWork.registerNew(user);
+        if (takenUsernames != null) {
+            // Added before the commit; if it fails, the database lookup still rejects nothing wrongly
+            takenUsernames.put(username);
+        }
+        return user;
+    }
+
+    /**
+     * Activate or deactivate a saved user
+     */
+    public void setActive(User user, boolean active) {
+        user.setActive(active);
+        userRepository.update(user);
+    }
+
+    /**
+     * Activate or deactivate a user, saved or registered in the same unit of
+     * work, when {@code unitOfWork} commits
+     */
+    public void setActive(User user, boolean active, UserUnitOfWork unitOfWork) {
+        user.setActive(active);
+        unitOfWork.registerDirty(user);
+    }
+
+    /**
+     * Bulk registration, e.g. for imports: every user is validated before
+     * anything is written, then saved in batches that succeed or fail per chunk
+     */
+    public SaveAllResult registerUsers(Collection<User> users) {
+        for (User user : users) {
+            validate(user.getUsername(), user.getEmail());
+        }
+        for (User user : users) {
+            user.setActive(true);
+        }
+
+        SaveAllResult result = userRepository.saveAll(users);
+        if (takenUsernames != null) {
+            for (User user : users) {
+                if (user.getId() != null) {
+                    takenUsernames.put(user.getUsername());
+                }
+            }
+        }
+        return result;
+    }
+
+    static void validate(String username, String email) {
+        if (username == null || username.trim().isEmpty()) {
+            throw new IllegalArgumentException("Username cannot be empty");
+        }
+        if (email == null || !email.contains("@")) {
+            throw new IllegalArgumentException("Invalid email address");
+        }
     }
 }
@@ -0,0 +1,77 @@
+package com.fose.repository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Buffers the user writes of one request and applies them together on
+ * {@link #commit()}: one connection, one transaction and two JDBC batches
+ * however many users were registered or changed, instead of a connection
+ * and a round trip per write.
+ *
+ * Inserts are flushed before updates, each in registration order. A user
+ * registered twice is written once, with its state at commit time. Not
+ * thread-safe: a unit of work belongs to the request that created it.
+ */
+public class UserUnitOfWork {
+    private final UserRepository repository;
+    // User has identity equality, so these hold each instance once
+    private final Set<User> newUsers = new LinkedHashSet<>();
+    private final Set<User> dirtyUsers = new LinkedHashSet<>();
+
+    public UserUnitOfWork(UserRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Insert the user at commit; its id is set once the commit succeeds
+     */
+    public void registerNew(User user) {
+        if (user.getId() != null) {
+            throw new IllegalArgumentException("User is already saved: " + user.getId());
+        }
+        newUsers.add(user);
+    }
+
+    /**
+     * Update the user's row at commit. A user still waiting to be inserted
+     * needs no update, as the insert writes its current state.
+     */
+    public void registerDirty(User user) {
+        if (user.getId() == null) {
+            if (!newUsers.contains(user)) {
+                throw new IllegalArgumentException("User is neither saved nor registered as new");
+            }
+            return;
+        }
+        dirtyUsers.add(user);
+    }
+
+    /**
+     * Apply every buffered change in one transaction and start over empty.
+     * If the transaction fails, nothing is written, the changes stay buffered
+     * and the {@link UserRepository.RepositoryException} is rethrown.
+     */
+    public void commit() {
+        repository.applyChanges(List.copyOf(newUsers), List.copyOf(dirtyUsers));
+        newUsers.clear();
+        dirtyUsers.clear();
+    }
+
+    /**
+     * Drop every buffered change without writing anything
+     */
+    public void discard() {
+        newUsers.clear();
+        dirtyUsers.clear();
+    }
+
+    public int getPendingInserts() {
+        return newUsers.size();
+    }
+
+    public int getPendingUpdates() {
+        return dirtyUsers.size();
+    }
+}
@@ -0,0 +1,122 @@
+package com.fose.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory Bloom filter of taken usernames.
+ *
+ * {@link #mightContain} never answers false for a username that was added, so
+ * a false answer proves the name is free without asking the database. A true
+ * answer may be a false positive and needs a database check. Sized from the
+ * expected number of usernames and the acceptable false-positive rate; safe
+ * for concurrent use.
+ */
+public class UsernameBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong added = new AtomicLong();
+
+    public UsernameBloomFilter(int expectedUsernames, double falsePositiveRate) {
+        if (expectedUsernames < 1) {
+            throw new IllegalArgumentException("expectedUsernames must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        // Optimal sizes: m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 hash functions
+        long m = (long) Math.ceil(-expectedUsernames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedUsernames * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact(bitCount / 64));
+    }
+
+    /**
+     * A filter holding every username already in the users table
+     */
+    public static UsernameBloomFilter seededFrom(UserRepository repository, int expectedUsernames,
+                                                 double falsePositiveRate) {
+        UsernameBloomFilter filter = new UsernameBloomFilter(expectedUsernames, falsePositiveRate);
+        repository.forEachUsername(filter::put);
+        return filter;
+    }
+
+    public void put(String username) {
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+        added.incrementAndGet();
+    }
+
+    /**
+     * @return false if the username was certainly never added
+     */
+    public boolean mightContain(String username) {
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * False-positive rate expected for the usernames added so far: (1 - e^(-kn/m))^k
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * added.get() / bitCount), hashCount);
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Size of the bit array; the object overhead around it is negligible
+     */
+    public long getMemoryBytes() {
+        return bitCount / 8;
+    }
+
+    /**
+     * Number of {@link #put} calls, counting repeats of the same username
+     */
+    public long getAddedCount() {
+        return added.get();
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, then MurmurHash3's finalizer so
+     * both 32-bit halves are well mixed for double hashing
+     */
+    private static long hash(String username) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < username.length(); i++) {
+            h = (h ^ username.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,214 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for keyset-paged and streaming active-user reads, with a benchmark
+ * of the covering index and the memory held by each read style.
+ */
+class ActiveUserPagingTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 1_000_000);
+    private static final int PAGE_SIZE = 1_000;
+
+    private JdbcConnectionPool dataSource;
+    private UserRepository repository;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("pagingdb" + testCounter);
+        repository = new UserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldWalkPagesWithoutGapsOrDuplicates() throws SQLException {
+        // Many users share a creation time, so the id breaks ties between pages
+        insertUsers(25, 4);
+        repository.createIndexes();
+
+        List<User> walked = new ArrayList<>();
+        List<User> page = repository.findActiveUsersPage(null, 7);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            page = repository.findActiveUsersPage(page.get(page.size() - 1), 7);
+        }
+
+        List<Long> expected = activeUserIdsNewestFirst();
+        assertEquals(expected, walked.stream().map(User::getId).toList());
+        assertNotNull(walked.get(0).getCreatedAt());
+    }
+
+    @Test
+    void shouldPageFromASavedUser() throws SQLException {
+        insertUsers(20, 4);
+        User saved = new User(null, "newest", "newest@example.com");
+        repository.save(saved);
+        assertNull(saved.getCreatedAt());
+
+        List<Long> expected = new ArrayList<>(activeUserIdsNewestFirst());
+        assertEquals(saved.getId(), expected.remove(0));
+        assertEquals(expected.subList(0, 5),
+            repository.findActiveUsersPage(saved, 5).stream().map(User::getId).toList());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> repository.findActiveUsersPage(new User(null, "unsaved", "unsaved@example.com"), 5));
+    }
+
+    @Test
+    void shouldStreamEveryActiveUser() throws SQLException {
+        insertUsers(50, 3);
+
+        try (Stream<User> users = repository.streamActiveUsers(8)) {
+            assertEquals(activeUserIdsNewestFirst(), users.map(User::getId).toList());
+        }
+        assertEquals(List.of(), repository.streamActiveUsers(8).filter(user -> false).toList());
+        assertEquals(5, repository.streamActiveUsers(8).limit(5).count());
+    }
+
+    @Test
+    void shouldReadPagesInIndexOrder() throws SQLException {
+        repository.createIndexes();
+        insertUsers(10, 1);
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "EXPLAIN SELECT id, username, email, created_at FROM users WHERE active = true " +
+                 "AND (created_at, id) < (CURRENT_TIMESTAMP, 5) ORDER BY active, created_at DESC, id DESC LIMIT 10");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            String plan = rs.getString(1);
+            assertTrue(plan.contains("IDX_USERS_ACTIVE_CREATED"), plan);
+            assertTrue(plan.contains("index sorted"), plan);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkPagingAndStreaming() throws SQLException {
+        insertUsers(BENCHMARK_ROWS, 10);
+
+        long tableScanNanos = timeDeepPages();
+        // Same order but without username and email, so every row is also looked up in the table
+        execute("CREATE INDEX idx_narrow ON users (active, created_at DESC, id DESC)");
+        long narrowIndexNanos = timeDeepPages();
+        execute("DROP INDEX idx_narrow");
+        repository.createIndexes();
+        long coveringIndexNanos = timeDeepPages();
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        List<User> all = repository.findActiveUsers();
+        long materializedBytes = usedHeapAfterGc(memory) - baseline;
+        int materialized = all.size();
+        all = null;
+
+        baseline = usedHeapAfterGc(memory);
+        long streamedBytes = 0;
+        int streamed = 0;
+        long start = System.nanoTime();
+        try (Stream<User> users = repository.streamActiveUsers(PAGE_SIZE)) {
+            for (Iterator<User> it = users.iterator(); it.hasNext(); it.next()) {
+                if (++streamed % (materialized / 4) == 0) {
+                    streamedBytes = Math.max(streamedBytes, usedHeapAfterGc(memory) - baseline);
+                }
+            }
+        }
+        long streamNanos = System.nanoTime() - start;
+
+        assertEquals(materialized, streamed);
+        System.out.printf("%d users, 10 pages of %d from deep offsets: no index %.2fms/page, " +
+                          "narrow index %.2fms/page, covering index %.2fms/page%n",
+            BENCHMARK_ROWS, PAGE_SIZE, tableScanNanos / 1e6 / 10, narrowIndexNanos / 1e6 / 10,
+            coveringIndexNanos / 1e6 / 10);
+        System.out.printf("%d active users: findActiveUsers retains %.1fMB, streamActiveUsers retains at most %.1fMB " +
+                          "(%.0fms for the full stream)%n",
+            materialized, materializedBytes / 1e6, Math.max(0, streamedBytes) / 1e6, streamNanos / 1e6);
+    }
+
+    /**
+     * Ten consecutive pages starting halfway through the table
+     */
+    private long timeDeepPages() {
+        User after = repository.findActiveUsersPage(null, 1).get(0);
+        // The benchmark table holds ten users per second
+        after.setCreatedAt(after.getCreatedAt().minusSeconds(BENCHMARK_ROWS / 10 / 2));
+        after.setId(Long.MAX_VALUE);
+
+        // Warm up before measuring
+        repository.findActiveUsersPage(after, PAGE_SIZE);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            List<User> page = repository.findActiveUsersPage(after, PAGE_SIZE);
+            if (page.isEmpty()) {
+                break; // small -Dbench.rows tables run out before ten pages
+            }
+            after = page.get(page.size() - 1);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Insert users created {@code perSecond} to a second; one in ten is inactive
+     */
+    private void insertUsers(int count, int perSecond) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO users (username, email, active, created_at) " +
+                 "SELECT 'user' || X, 'user' || X || '@example.com', MOD(X, 10) <> 0, " +
+                 "DATEADD(SECOND, X / ?, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setInt(1, perSecond);
+            stmt.setInt(2, count);
+            stmt.executeUpdate();
+        }
+    }
+
+    private List<Long> activeUserIdsNewestFirst() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT id FROM users WHERE active = true ORDER BY created_at DESC, id DESC")) {
+            List<Long> ids = new ArrayList<>();
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the id and username projections of active users, with a
+ * comparison of time and allocation against full users.
+ */
+class ActiveUserProjectionTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 500_000);
+
+    private JdbcConnectionPool dataSource;
+    private UserRepository repository;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("projectiondb" + testCounter);
+        repository = new UserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldProjectActiveUsersNewestFirst() throws SQLException {
+        insertUsers(3_000);
+
+        List<User> users = repository.streamActiveUsers(500).toList();
+        long[] ids = repository.findActiveUserIds();
+        CompactStringArray usernames = repository.findActiveUsernames();
+
+        assertEquals(2_700, users.size());
+        assertArrayEquals(users.stream().mapToLong(User::getId).toArray(), ids);
+        assertEquals(users.size(), usernames.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(users.get(i).getUsername(), usernames.get(i));
+            assertTrue(usernames.contentEquals(i, users.get(i).getUsername()));
+        }
+    }
+
+    @Test
+    void shouldReturnEmptyProjectionsForNoActiveUsers() {
+        User inactive = new User(null, "alice", "alice@example.com");
+        inactive.setActive(false);
+        repository.save(inactive);
+
+        assertEquals(0, repository.findActiveUserIds().length);
+        assertEquals(0, repository.findActiveUsernames().size());
+        assertThrows(IndexOutOfBoundsException.class, () -> repository.findActiveUsernames().get(0));
+    }
+
+    @Test
+    void shouldEncodeLikeStringGetBytes() {
+        List<String> values = List.of("alice", "", "zoë", "用户", "emoji😀", "lone\uD800surrogate");
+        CompactStringArray.Builder builder = new CompactStringArray.Builder(1, 1);
+        for (int i = 0; i < 100; i++) {
+            builder.add(values.get(i % values.size()));
+        }
+        CompactStringArray array = builder.build();
+
+        assertEquals(100, array.size());
+        for (int i = 0; i < 100; i++) {
+            byte[] expected = values.get(i % values.size()).getBytes(StandardCharsets.UTF_8);
+            assertEquals(new String(expected, StandardCharsets.UTF_8), array.get(i));
+            assertEquals(expected.length, array.getUtf8Length(i));
+        }
+        assertTrue(array.contentEquals(2, "zoë"));
+        assertFalse(array.contentEquals(2, "zoe"));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareFullUsersAndProjections() throws SQLException {
+        insertUsers(BENCHMARK_ROWS);
+        repository.createIndexes();
+
+        // Warm up every path before measuring
+        for (int i = 0; i < 3; i++) {
+            repository.findActiveUsers();
+            repository.findActiveUserIds();
+            repository.findActiveUsernames();
+        }
+
+        Measurement users = measure(repository::findActiveUsers);
+        Measurement ids = measure(repository::findActiveUserIds);
+        Measurement usernames = measure(repository::findActiveUsernames);
+
+        // Allocation includes H2's own per-row values, which no caller can avoid
+        assertTrue(ids.allocatedBytes < users.allocatedBytes);
+        assertTrue(usernames.allocatedBytes < users.allocatedBytes);
+        int active = repository.findActiveUserIds().length;
+        System.out.printf("%d active users: findActiveUsers %s; findActiveUserIds %s, %.1fMB result; " +
+                          "findActiveUsernames %s, %.1fMB result%n",
+            active, users.describe(active), ids.describe(active), active * 8 / 1e6,
+            usernames.describe(active), repository.findActiveUsernames().getMemoryBytes() / 1e6);
+    }
+
+    /**
+     * Time and bytes allocated by this thread for one read. Retained heap is
+     * not measured: H2's caches free memory between reads at their own pace,
+     * which swamps a few MB of result.
+     */
+    private static Measurement measure(Supplier<Object> read) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        read.get();
+        long nanos = System.nanoTime() - start;
+        return new Measurement(nanos, threads.getThreadAllocatedBytes(threadId) - allocatedBefore);
+    }
+
+    /**
+     * One in ten users is inactive
+     */
+    private void insertUsers(int count) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO users (username, email, active, created_at) " +
+                 "SELECT 'user' || X, 'user' || X || '@example.com', MOD(X, 10) <> 0, " +
+                 "DATEADD(SECOND, X / 10, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setInt(1, count);
+            stmt.executeUpdate();
+        }
+    }
+
+    private record Measurement(long nanos, long allocatedBytes) {
+        String describe(int rows) {
+            return String.format("%.0fms and %.0f bytes/row allocated", nanos / 1e6, (double) allocatedBytes / rows);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the virtual-thread repository facade and the async service
+ */
+class AsyncUserRepositoryTest {
+    private static final int POOL_SIZE = 3;
+    private static final long IO_MILLIS = 50;
+
+    private JdbcConnectionPool dataSource;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("asyncdb" + testCounter);
+        dataSource.setMaxConnections(POOL_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldSaveAndReturnUsersWithIds() {
+        try (AsyncUserRepository repository = new AsyncUserRepository(new UserRepository(dataSource), dataSource)) {
+            User alice = repository.save(new User(null, "alice", "alice@example.com")).join();
+            User bob = repository.upsert(new User(null, "bob", "bob@example.com")).join();
+
+            assertNotNull(alice.getId());
+            assertNotNull(bob.getId());
+            assertEquals(2, repository.findActiveUsers().join().size());
+        }
+    }
+
+    @Test
+    void shouldNeverExceedThePoolCapacity() {
+        SlowUserRepository slow = new SlowUserRepository(new UserRepository(dataSource));
+        try (AsyncUserRepository repository = new AsyncUserRepository(slow, dataSource)) {
+            List<CompletableFuture<List<User>>> calls = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                calls.add(repository.findActiveUsers());
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+            assertEquals(POOL_SIZE, repository.getMaxConcurrentCalls());
+            assertEquals(POOL_SIZE, slow.maxConcurrent.get());
+            assertEquals(0, repository.getInFlightCalls());
+        }
+    }
+
+    @Test
+    void shouldFailFuturesWithRepositoryErrors() {
+        try (AsyncUserRepository repository = new AsyncUserRepository(new UserRepository(dataSource), dataSource)) {
+            AsyncUserServiceWithRepository service = new AsyncUserServiceWithRepository(repository);
+            service.registerUser("alice", "alice@example.com").join();
+
+            CompletionException e = assertThrows(CompletionException.class,
+                () -> service.registerUser("alice", "other@example.com").join());
+            assertInstanceOf(UserRepository.RepositoryException.class, e.getCause());
+            // Invalid input is rejected before anything is submitted
+            assertThrows(IllegalArgumentException.class, () -> service.registerUser("bob", "invalid"));
+        }
+    }
+
+    @Test
+    void shouldOverlapRepositoryCallsWithOtherIo() {
+        SlowUserRepository slow = new SlowUserRepository(new UserRepository(dataSource));
+        try (AsyncUserRepository repository = new AsyncUserRepository(slow, dataSource)) {
+            AsyncUserServiceWithRepository service = new AsyncUserServiceWithRepository(repository);
+
+            long start = System.nanoTime();
+            CompletableFuture<User> registered = service.registerUser("alice", "alice@example.com");
+            CompletableFuture<List<User>> active = service.getActiveUsers();
+            CompletableFuture<String> profile = CompletableFuture.supplyAsync(() -> {
+                sleep(IO_MILLIS);
+                return "profile";
+            });
+            CompletableFuture.allOf(registered, active, profile).join();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertNotNull(registered.join().getId());
+            // Three waits of IO_MILLIS each, overlapped rather than one after another
+            assertTrue(elapsedMillis < 3 * IO_MILLIS, "took " + elapsedMillis + "ms");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds network-like latency to every call and records the peak concurrency
+     */
+    private static class SlowUserRepository extends UserRepository {
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final UserRepository delegate;
+
+        SlowUserRepository(UserRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<User> findActiveUsers() {
+            enter();
+            try {
+                return delegate.findActiveUsers();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void save(User user) {
+            enter();
+            try {
+                delegate.save(user);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        private void enter() {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            sleep(IO_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the caching repository decorator
+ */
+class CachingUserRepositoryTest {
+    private JdbcConnectionPool dataSource;
+    private CachingUserRepository repository;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("cachedb" + testCounter);
+        repository = new CachingUserRepository(new UserRepository(dataSource), 16, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromTheCache() throws SQLException {
+        UserServiceWithRepository service = new UserServiceWithRepository(repository);
+        service.registerUser("alice", "alice@example.com");
+
+        assertEquals(1, service.getActiveUsers().size());
+        // Written around the repository, so only a database read would see it
+        insertDirectly("bob");
+        assertEquals(1, service.getActiveUsers().size());
+
+        CacheStats stats = repository.getCacheStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void shouldInvalidateOnEveryWrite() {
+        repository.save(new User(null, "alice", "alice@example.com"));
+        assertEquals(1, repository.findActiveUsers().size());
+
+        repository.upsert(new User(null, "bob", "bob@example.com"));
+        assertEquals(2, repository.findActiveUsers().size());
+
+        repository.upsertAll(List.of(new User(null, "carol", "carol@example.com")));
+        assertEquals(3, repository.findActiveUsers().size());
+
+        // A failed write may still have changed something, so it invalidates too
+        assertThrows(UserRepository.RepositoryException.class,
+            () -> repository.save(new User(null, "alice", "other@example.com")));
+
+        CacheStats stats = repository.getCacheStats();
+        assertEquals(0, stats.getHits());
+        assertEquals(3, stats.getMisses());
+        assertEquals(4, stats.getInvalidations());
+    }
+
+    @Test
+    void shouldNotLetCallersChangeCachedUsers() {
+        repository.save(new User(null, "alice", "alice@example.com"));
+        User changed = repository.findActiveUsers().get(0);
+        changed.setEmail("changed@example.com");
+        changed.setActive(false);
+
+        User reread = repository.findActiveUsers().get(0);
+        assertEquals("alice@example.com", reread.getEmail());
+        assertTrue(reread.isActive());
+        assertEquals(1, repository.getCacheStats().getHits());
+    }
+
+    @Test
+    void shouldCachePagesPerCursorWithinTheSizeBound() {
+        CachingUserRepository twoEntries =
+            new CachingUserRepository(new UserRepository(dataSource), 2, Duration.ofMinutes(1));
+        for (String name : List.of("alice", "bob", "carol")) {
+            twoEntries.save(new User(null, name, name + "@example.com"));
+        }
+        User first = twoEntries.findActiveUsersPage(null, 1).get(0);
+        List<User> second = twoEntries.findActiveUsersPage(first, 1);
+        assertEquals(second.get(0).getId(), twoEntries.findActiveUsersPage(first, 1).get(0).getId());
+        assertEquals(1, twoEntries.getCacheStats().getHits());
+
+        // A third key evicts the least recently used first page
+        twoEntries.findActiveUsersPage(null, 2);
+        twoEntries.findActiveUsersPage(null, 1);
+        CacheStats stats = twoEntries.getCacheStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(4, stats.getMisses());
+    }
+
+    @Test
+    void shouldExpireAndEvictEntries() {
+        AtomicLong now = new AtomicLong();
+        LruCacheBackend<String, String> cache = new LruCacheBackend<>(2, Duration.ofSeconds(10), now::get);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        // b was least recently used
+        assertNull(cache.get("b"));
+        assertEquals(2, cache.size());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertNull(cache.get("a"));
+        assertNull(cache.get("c"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldOverrideEveryRepositoryMethod() {
+        // An inherited method would bypass both the delegate and the invalidation
+        for (Method method : UserRepository.class.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                assertDoesNotThrow(
+                    () -> CachingUserRepository.class.getDeclaredMethod(method.getName(), method.getParameterTypes()),
+                    "CachingUserRepository must override " + method);
+            }
+        }
+    }
+
+    private void insertDirectly(String username) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO users (username, email) VALUES ('" + username + "', 'x@example.com')");
+        }
+    }
+}
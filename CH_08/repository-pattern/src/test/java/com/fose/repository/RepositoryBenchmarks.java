@@ -0,0 +1,34 @@
+package com.fose.repository;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link RepositoryOverheadBenchmark} once per thread count in
+ * {@code -Dbench.threads} (default 1,4) with the GC profiler, writing each
+ * run's results to {@code target/jmh-threads-N.json}.
+ *
+ * <pre>mvn -P benchmark test-compile exec:exec -Dbench.threads=1,2,8</pre>
+ */
+public final class RepositoryBenchmarks {
+    private RepositoryBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (String threads : System.getProperty("bench.threads", "1,4").split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            Options options = new OptionsBuilder()
+                .include(RepositoryOverheadBenchmark.class.getName() + "\\.")
+                .threads(threadCount)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-threads-" + threadCount + ".json")
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
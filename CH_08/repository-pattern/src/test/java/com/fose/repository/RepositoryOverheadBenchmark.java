@@ -0,0 +1,160 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Does the repository abstraction cost anything on the hot path? The same
+ * reads and writes through {@link UserServiceDirectSQL} and
+ * {@link UserServiceWithRepository}, on pooled in-memory H2 databases.
+ *
+ * Run with {@link RepositoryBenchmarks}, which adds thread counts and the
+ * GC profiler's gc.alloc.rate.norm (bytes allocated per operation).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryOverheadBenchmark {
+    private static final AtomicLong DATABASES = new AtomicLong();
+
+    /**
+     * A users table of {@code tableSize} rows, read by both services
+     */
+    @State(Scope.Benchmark)
+    public static class ReadState {
+        @Param({"100", "10000"})
+        public int tableSize;
+
+        JdbcConnectionPool dataSource;
+        UserServiceDirectSQL direct;
+        UserServiceWithRepository repository;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            dataSource = createDatabase();
+            insertUsers(dataSource, tableSize);
+            direct = new UserServiceDirectSQL(dataSource);
+            repository = new UserServiceWithRepository(new UserRepository(dataSource));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            dataSource.dispose();
+        }
+    }
+
+    /**
+     * A users table that starts each iteration at {@code tableSize} rows and grows with every insert
+     */
+    @State(Scope.Benchmark)
+    public static class WriteState {
+        @Param({"100", "10000"})
+        public int tableSize;
+
+        final AtomicLong usernames = new AtomicLong();
+        JdbcConnectionPool dataSource;
+        UserServiceDirectSQL direct;
+        UserServiceWithRepository repository;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            dataSource = createDatabase();
+            insertUsers(dataSource, tableSize);
+            direct = new UserServiceDirectSQL(dataSource);
+            repository = new UserServiceWithRepository(new UserRepository(dataSource));
+        }
+
+        @TearDown(Level.Iteration)
+        public void trim() throws SQLException {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE id > ?")) {
+                stmt.setLong(1, tableSize);
+                stmt.executeUpdate();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            dataSource.dispose();
+        }
+
+        String nextUsername() {
+            return "bench" + usernames.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public List<User> directGetActiveUsers(ReadState state) {
+        return state.direct.getActiveUsers();
+    }
+
+    @Benchmark
+    public List<User> repositoryGetActiveUsers(ReadState state) {
+        return state.repository.getActiveUsers();
+    }
+
+    @Benchmark
+    public void directCreateUser(WriteState state) {
+        String username = state.nextUsername();
+        state.direct.createUser(username, username + "@example.com");
+    }
+
+    @Benchmark
+    public void repositoryCreateUser(WriteState state) {
+        String username = state.nextUsername();
+        state.repository.registerUser(username, username + "@example.com");
+    }
+
+    private static JdbcConnectionPool createDatabase() throws SQLException {
+        // Without OPTIMIZE_REUSE_RESULTS=FALSE, H2 answers a repeated identical query from its last result
+        JdbcConnectionPool dataSource = JdbcConnectionPool.create(
+            "jdbc:h2:mem:bench" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE", "", "");
+        dataSource.setMaxConnections(64);
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE users (
+                    id IDENTITY PRIMARY KEY,
+                    username VARCHAR(50) NOT NULL,
+                    email VARCHAR(100) NOT NULL,
+                    active BOOLEAN DEFAULT TRUE,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+        }
+        return dataSource;
+    }
+
+    private static void insertUsers(JdbcConnectionPool dataSource, int count) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO users (username, email) " +
+                 "SELECT 'user' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setInt(1, count);
+            stmt.executeUpdate();
+        }
+    }
+}
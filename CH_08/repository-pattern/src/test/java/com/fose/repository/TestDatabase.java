@@ -0,0 +1,42 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Pooled in-memory H2 databases with the users schema, for the repository
+ * tests. Usernames are unique, as upserts and lookups by username rely on it.
+ */
+final class TestDatabase {
+    private TestDatabase() {
+    }
+
+    static JdbcConnectionPool create(String name) throws SQLException {
+        JdbcConnectionPool ds = JdbcConnectionPool.create("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "", "");
+
+        try (Connection conn = ds.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS users (
+                    id IDENTITY PRIMARY KEY,
+                    username VARCHAR(50) NOT NULL UNIQUE,
+                    email VARCHAR(100) NOT NULL,
+                    active BOOLEAN DEFAULT TRUE,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+        }
+        return ds;
+    }
+
+    static void drop(JdbcConnectionPool dataSource) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        dataSource.dispose();
+    }
+}
@@ -0,0 +1,139 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for batched saveAll and bulk registration, with a comparison
+ * against saving users one at a time.
+ */
+class UserSaveAllTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 20_000);
+
+    private JdbcConnectionPool dataSource;
+    private UserRepository repository;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("savealldb" + testCounter);
+        repository = new UserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldAssignGeneratedIdsInOrder() throws SQLException {
+        List<User> users = newUsers("user", 25);
+
+        SaveAllResult result = repository.saveAll(users, 10);
+
+        assertTrue(result.isComplete());
+        assertEquals(25, result.getSavedCount());
+        for (User user : users) {
+            assertEquals(user.getUsername(), usernameOf(user.getId()));
+        }
+    }
+
+    @Test
+    void shouldReportFailedChunksAndKeepTheRest() throws SQLException {
+        repository.save(new User(null, "taken", "taken@example.com"));
+        List<User> users = newUsers("user", 30);
+        // The second chunk collides with an existing username
+        users.set(15, new User(null, "taken", "other@example.com"));
+
+        SaveAllResult result = repository.saveAll(users, 10);
+
+        assertEquals(20, result.getSavedCount());
+        assertEquals(1, result.getFailures().size());
+        SaveAllResult.ChunkFailure failure = result.getFailures().get(0);
+        assertEquals(1, failure.getChunkIndex());
+        assertEquals(users.subList(10, 20), failure.getUsers());
+        assertInstanceOf(SQLException.class, failure.getCause());
+
+        assertTrue(users.subList(10, 20).stream().allMatch(user -> user.getId() == null));
+        assertTrue(users.subList(20, 30).stream().allMatch(user -> user.getId() != null));
+        assertEquals(21, countUsers());
+    }
+
+    @Test
+    void shouldValidateEveryUserBeforeRegistering() throws SQLException {
+        UserServiceWithRepository service = new UserServiceWithRepository(repository);
+        List<User> users = newUsers("user", 5);
+        users.get(3).setEmail("not-an-email");
+
+        assertThrows(IllegalArgumentException.class, () -> service.registerUsers(users));
+        assertEquals(0, countUsers());
+
+        users.get(3).setEmail("user3@example.com");
+        SaveAllResult result = service.registerUsers(users);
+        assertTrue(result.isComplete());
+        assertEquals(5, service.getActiveUsers().size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareSaveAllAndSingleSaves() {
+        // Warm up both paths before measuring
+        newUsers("warm", 2_000).forEach(repository::save);
+        repository.saveAll(newUsers("warmbatch", 2_000));
+
+        List<User> single = newUsers("single", BENCHMARK_ROWS);
+        long start = System.nanoTime();
+        single.forEach(repository::save);
+        long singleNanos = System.nanoTime() - start;
+
+        List<User> batched = newUsers("batched", BENCHMARK_ROWS);
+        start = System.nanoTime();
+        SaveAllResult result = repository.saveAll(batched);
+        long batchedNanos = System.nanoTime() - start;
+
+        assertTrue(result.isComplete());
+        System.out.printf("%d users: save %.2fus/user, saveAll in chunks of %d %.2fus/user%n",
+            BENCHMARK_ROWS, singleNanos / 1e3 / BENCHMARK_ROWS,
+            UserRepository.DEFAULT_CHUNK_SIZE, batchedNanos / 1e3 / BENCHMARK_ROWS);
+    }
+
+    private static List<User> newUsers(String prefix, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new User(null, prefix + i, prefix + i + "@example.com"));
+        }
+        return users;
+    }
+
+    private String usernameOf(long id) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT username FROM users WHERE id = ?")) {
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private long countUsers() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM users");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the unit of work, with a comparison of connections and latency
+ * against writing each change immediately.
+ */
+class UserUnitOfWorkTest {
+    private static final int BENCHMARK_REQUESTS = Integer.getInteger("bench.requests", 2_000);
+    private static final int WRITES_PER_REQUEST = 10;
+
+    private JdbcConnectionPool dataSource;
+    private final AtomicInteger connections = new AtomicInteger();
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("unitdb" + testCounter);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldApplyInsertsAndUpdatesOnOneConnection() {
+        UserRepository repository = new UserRepository(countingDataSource());
+        User alice = new User(null, "alice", "alice@example.com");
+        repository.save(alice);
+        UserServiceWithRepository service = new UserServiceWithRepository(repository);
+        connections.set(0);
+
+        UserUnitOfWork unitOfWork = new UserUnitOfWork(repository);
+        User bob = service.registerUser("bob", "bob@example.com", unitOfWork);
+        User carol = service.registerUser("carol", "carol@example.com", unitOfWork);
+        service.setActive(alice, false, unitOfWork);
+        // Still waiting to be inserted, so this only changes what the insert writes
+        service.setActive(carol, false, unitOfWork);
+        service.setActive(alice, false, unitOfWork);
+
+        assertEquals(0, connections.get());
+        assertNull(bob.getId());
+        assertEquals(2, unitOfWork.getPendingInserts());
+        assertEquals(1, unitOfWork.getPendingUpdates());
+
+        unitOfWork.commit();
+
+        assertEquals(1, connections.get());
+        assertNotNull(bob.getId());
+        assertNotNull(carol.getId());
+        assertEquals(List.of("bob"), repository.findActiveUsers().stream().map(User::getUsername).toList());
+        assertEquals(0, unitOfWork.getPendingInserts() + unitOfWork.getPendingUpdates());
+    }
+
+    @Test
+    void shouldWriteNothingWhenAnyChangeFails() {
+        UserRepository repository = new UserRepository(dataSource);
+        User alice = new User(null, "alice", "alice@example.com");
+        repository.save(alice);
+
+        UserUnitOfWork unitOfWork = new UserUnitOfWork(repository);
+        User bob = new User(null, "bob", "bob@example.com");
+        unitOfWork.registerNew(bob);
+        unitOfWork.registerNew(new User(null, "alice", "other@example.com"));
+        alice.setActive(false);
+        unitOfWork.registerDirty(alice);
+
+        assertThrows(UserRepository.RepositoryException.class, unitOfWork::commit);
+
+        assertNull(bob.getId());
+        assertEquals(List.of("alice"), repository.findActiveUsers().stream().map(User::getUsername).toList());
+        assertEquals(2, unitOfWork.getPendingInserts());
+
+        // Updating a row that no longer exists fails the whole unit too
+        unitOfWork.discard();
+        unitOfWork.registerNew(bob);
+        unitOfWork.registerDirty(new User(-1L, "ghost", "ghost@example.com"));
+        assertThrows(UserRepository.RepositoryException.class, unitOfWork::commit);
+        assertNull(bob.getId());
+        assertThrows(IllegalArgumentException.class, () -> unitOfWork.registerDirty(new User()));
+    }
+
+    @Test
+    void shouldInvalidateTheCacheOncePerCommit() {
+        CachingUserRepository repository =
+            new CachingUserRepository(new UserRepository(dataSource), 16, Duration.ofMinutes(1));
+        User alice = new User(null, "alice", "alice@example.com");
+        repository.save(alice);
+        assertEquals(1, repository.findActiveUsers().size());
+
+        UserUnitOfWork unitOfWork = new UserUnitOfWork(repository);
+        unitOfWork.registerNew(new User(null, "bob", "bob@example.com"));
+        unitOfWork.registerNew(new User(null, "carol", "carol@example.com"));
+        alice.setActive(false);
+        unitOfWork.registerDirty(alice);
+        unitOfWork.commit();
+
+        assertEquals(2, repository.findActiveUsers().size());
+        assertEquals(2, repository.getCacheStats().getInvalidations());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareImmediateWritesAndUnitOfWork() {
+        UserRepository repository = new UserRepository(countingDataSource());
+        UserServiceWithRepository service = new UserServiceWithRepository(repository);
+        List<User> existing = new ArrayList<>();
+        for (int i = 0; i < WRITES_PER_REQUEST / 2; i++) {
+            User user = new User(null, "existing" + i, "existing" + i + "@example.com");
+            repository.save(user);
+            existing.add(user);
+        }
+
+        // Warm up both paths before measuring
+        runImmediateRequests(service, existing, "warm-immediate");
+        runUnitOfWorkRequests(service, repository, existing, "warm-unit");
+
+        connections.set(0);
+        long start = System.nanoTime();
+        runImmediateRequests(service, existing, "immediate");
+        long immediateNanos = System.nanoTime() - start;
+        int immediateConnections = connections.getAndSet(0);
+
+        start = System.nanoTime();
+        runUnitOfWorkRequests(service, repository, existing, "unit");
+        long unitNanos = System.nanoTime() - start;
+        int unitConnections = connections.get();
+
+        assertEquals(BENCHMARK_REQUESTS * WRITES_PER_REQUEST, immediateConnections);
+        assertEquals(BENCHMARK_REQUESTS, unitConnections);
+        System.out.printf("%d registrations and %d flag changes per request: immediate %.3fms and %d connections/request, " +
+                          "unit of work %.3fms and %d connection/request%n",
+            WRITES_PER_REQUEST / 2, WRITES_PER_REQUEST / 2,
+            immediateNanos / 1e6 / BENCHMARK_REQUESTS, immediateConnections / BENCHMARK_REQUESTS,
+            unitNanos / 1e6 / BENCHMARK_REQUESTS, unitConnections / BENCHMARK_REQUESTS);
+    }
+
+    private static void runImmediateRequests(UserServiceWithRepository service, List<User> existing, String prefix) {
+        for (int r = 0; r < BENCHMARK_REQUESTS; r++) {
+            for (User user : existing) {
+                String username = prefix + r + "_" + user.getId();
+                service.registerUser(username, username + "@example.com");
+                service.setActive(user, r % 2 == 0);
+            }
+        }
+    }
+
+    private static void runUnitOfWorkRequests(UserServiceWithRepository service, UserRepository repository,
+                                              List<User> existing, String prefix) {
+        for (int r = 0; r < BENCHMARK_REQUESTS; r++) {
+            UserUnitOfWork unitOfWork = new UserUnitOfWork(repository);
+            for (User user : existing) {
+                String username = prefix + r + "_" + user.getId();
+                service.registerUser(username, username + "@example.com", unitOfWork);
+                service.setActive(user, r % 2 == 0, unitOfWork);
+            }
+            unitOfWork.commit();
+        }
+    }
+
+    /**
+     * The pool, counting every connection handed out
+     */
+    private DataSource countingDataSource() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("getConnection")) {
+                    connections.incrementAndGet();
+                }
+                try {
+                    return method.invoke(dataSource, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+}
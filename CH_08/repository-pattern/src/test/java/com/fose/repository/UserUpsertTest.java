@@ -0,0 +1,273 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MERGE-based upserts, with a comparison against read-then-write
+ */
+class UserUpsertTest {
+    private static final int THREADS = 8;
+    private static final int UPSERTS_PER_THREAD = 500;
+    private static final int USERNAMES = 20;
+    private static final int BENCHMARK_OPS = Integer.getInteger("bench.ops", 20_000);
+
+    private JdbcConnectionPool dataSource;
+    private UserRepository repository;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("upsertdb" + testCounter);
+        repository = new UserRepository(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldInsertThenUpdateInPlace() {
+        User first = new User(null, "alice", "alice@example.com");
+        repository.upsert(first);
+        assertNotNull(first.getId());
+
+        User second = new User(null, "alice", "alice@example.org");
+        repository.upsert(second);
+
+        assertEquals(first.getId(), second.getId());
+        List<User> users = repository.findActiveUsers();
+        assertEquals(1, users.size());
+        assertEquals("alice@example.org", users.get(0).getEmail());
+    }
+
+    @Test
+    void shouldUpsertAllAndSetEveryId() {
+        User alice = new User(null, "alice", "alice@example.com");
+        repository.save(alice);
+
+        User aliceAgain = new User(null, "alice", "alice@example.org");
+        User bob = new User(null, "bob", "bob@example.com");
+        User carol = new User(null, "carol", "carol@example.com");
+        carol.setActive(false);
+        repository.upsertAll(List.of(aliceAgain, bob, carol));
+
+        assertEquals(alice.getId(), aliceAgain.getId());
+        assertNotNull(bob.getId());
+        assertNotNull(carol.getId());
+        assertNotEquals(bob.getId(), carol.getId());
+        assertEquals(Set.of("alice", "bob"),
+            repository.findActiveUsers().stream().map(User::getUsername).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void shouldLeaveIdsUnsetWhenUpsertAllFailsToCommit() throws SQLException {
+        UserRepository failingCommits = new UserRepository(failingCommitDataSource());
+        User alice = new User(null, "alice", "alice@example.com");
+        User bob = new User(null, "bob", "bob@example.com");
+
+        assertThrows(UserRepository.RepositoryException.class, () -> failingCommits.upsertAll(List.of(alice, bob)));
+
+        assertNull(alice.getId());
+        assertNull(bob.getId());
+        assertEquals(0, countUsers());
+    }
+
+    @Test
+    void shouldNotLoseConcurrentUpserts() throws Exception {
+        Map<String, Long> idsSeen = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < UPSERTS_PER_THREAD; i++) {
+                User user = new User(null, "user" + i % USERNAMES, "t" + thread + "-" + i + "@example.com");
+                repository.upsert(user);
+                // Every caller for a username must get back the id of the same row
+                if (!user.getId().equals(idsSeen.computeIfAbsent(user.getUsername(), name -> user.getId()))) {
+                    conflicts.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, conflicts.get());
+        assertEquals(USERNAMES, countUsers());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareUpsertAndReadThenWrite() throws Exception {
+        // The race first: concurrent read-then-write callers both see no row and both insert
+        AtomicInteger failures = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < UPSERTS_PER_THREAD; i++) {
+                try {
+                    readThenWrite(new User(null, "race" + i % USERNAMES, "t" + thread + "@example.com"));
+                } catch (SQLException e) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERNAMES; i++) {
+            users.add(new User(null, "bench" + i, "bench" + i + "@example.com"));
+        }
+        repository.upsertAll(users);
+
+        // Warm up both paths before measuring; H2 takes a few rounds to reach steady state
+        for (int i = 0; i < 3; i++) {
+            runUpserts(users, BENCHMARK_OPS);
+            runReadThenWrites(users, BENCHMARK_OPS);
+        }
+
+        long start = System.nanoTime();
+        runUpserts(users, BENCHMARK_OPS);
+        long upsertNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        runReadThenWrites(users, BENCHMARK_OPS);
+        long readThenWriteNanos = System.nanoTime() - start;
+
+        System.out.printf("Concurrent read-then-write: %d of %d calls failed on the unique username%n",
+            failures.get(), THREADS * UPSERTS_PER_THREAD);
+        System.out.printf("%d updates of existing users: MERGE %.2fus/op, read-then-write %.2fus/op%n",
+            BENCHMARK_OPS, upsertNanos / 1e3 / BENCHMARK_OPS, readThenWriteNanos / 1e3 / BENCHMARK_OPS);
+    }
+
+    private void runUpserts(List<User> users, int ops) {
+        for (int i = 0; i < ops; i++) {
+            repository.upsert(users.get(i % users.size()));
+        }
+    }
+
+    private void runReadThenWrites(List<User> users, int ops) throws SQLException {
+        for (int i = 0; i < ops; i++) {
+            readThenWrite(users.get(i % users.size()));
+        }
+    }
+
+    /**
+     * The upsert before MERGE: look the user up, then update or insert
+     */
+    private void readThenWrite(User user) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            Long id = null;
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM users WHERE username = ?")) {
+                stmt.setString(1, user.getUsername());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        id = rs.getLong(1);
+                    }
+                }
+            }
+
+            if (id != null) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                         "UPDATE users SET email = ?, active = ? WHERE id = ?")) {
+                    stmt.setString(1, user.getEmail());
+                    stmt.setBoolean(2, user.isActive());
+                    stmt.setLong(3, id);
+                    stmt.executeUpdate();
+                }
+                user.setId(id);
+            } else {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                         "INSERT INTO users (username, email, active) VALUES (?, ?, ?)", new String[] {"id"})) {
+                    stmt.setString(1, user.getUsername());
+                    stmt.setString(2, user.getEmail());
+                    stmt.setBoolean(3, user.isActive());
+                    stmt.executeUpdate();
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        rs.next();
+                        user.setId(rs.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+
+    private long countUsers() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM users");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    body.run(thread);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The pool, with connections whose commit always fails
+     */
+    private DataSource failingCommitDataSource() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+            (proxy, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                if (!(result instanceof Connection conn)) {
+                    return result;
+                }
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                    (connProxy, connMethod, connArgs) -> {
+                        if (connMethod.getName().equals("commit")) {
+                            throw new SQLException("Commit failed");
+                        }
+                        return invoke(conn, connMethod, connArgs);
+                    });
+            });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
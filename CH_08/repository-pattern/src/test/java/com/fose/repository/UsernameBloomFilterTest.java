@@ -0,0 +1,139 @@
+package com.fose.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the username Bloom filter and the registration pre-check, with
+ * the measured false-positive rate, memory footprint and duplicate-retry cost.
+ */
+class UsernameBloomFilterTest {
+    private static final int BENCHMARK_ROWS = Integer.getInteger("bench.rows", 100_000);
+    private static final int BENCHMARK_RETRIES = 5_000;
+
+    private JdbcConnectionPool dataSource;
+    private static int testCounter = 0;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        testCounter++;
+        dataSource = TestDatabase.create("bloomdb" + testCounter);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.drop(dataSource);
+    }
+
+    @Test
+    void shouldNeverMissAnAddedUsername() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+        assertEquals(10_000, filter.getAddedCount());
+    }
+
+    @Test
+    void shouldRejectDuplicateRetriesWithoutInserting() {
+        new UserRepository(dataSource).save(new User(null, "alice", "alice@example.com"));
+
+        AtomicInteger inserts = new AtomicInteger();
+        UserRepository repository = new UserRepository(dataSource) {
+            @Override
+            public void save(User user) {
+                inserts.incrementAndGet();
+                super.save(user);
+            }
+        };
+        UsernameBloomFilter filter = UsernameBloomFilter.seededFrom(repository, 1_000, 0.01);
+        UserServiceWithRepository service = new UserServiceWithRepository(repository, filter);
+
+        // Seeded from the table, then a retry of this service's own registration
+        assertThrows(IllegalArgumentException.class, () -> service.registerUser("alice", "alice@example.com"));
+        service.registerUser("bob", "bob@example.com");
+        assertThrows(IllegalArgumentException.class, () -> service.registerUser("bob", "bob@example.com"));
+
+        assertEquals(1, inserts.get());
+        assertTrue(filter.mightContain("bob"));
+    }
+
+    @Test
+    void measureFalsePositiveRateAndMemory() {
+        UsernameBloomFilter filter = new UsernameBloomFilter(BENCHMARK_ROWS, 0.01);
+        for (int i = 0; i < BENCHMARK_ROWS; i++) {
+            filter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < BENCHMARK_ROWS; i++) {
+            if (filter.mightContain("absent" + i)) {
+                falsePositives++;
+            }
+        }
+        double measured = (double) falsePositives / BENCHMARK_ROWS;
+
+        assertTrue(measured < 0.02, String.format(
+            "%d usernames at 1%% target: %d bits, %d hashes, %.1fKB; false positives expected %.3f%%, measured %.3f%%",
+            BENCHMARK_ROWS, filter.getBitCount(), filter.getHashCount(), filter.getMemoryBytes() / 1024.0,
+            filter.expectedFalsePositiveRate() * 100, measured * 100));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareDuplicateRetriesWithAndWithoutFilter() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO users (username, email) " +
+                 "SELECT 'user' || X, 'user' || X || '@example.com' FROM SYSTEM_RANGE(1, ?)")) {
+            stmt.setInt(1, BENCHMARK_ROWS);
+            stmt.executeUpdate();
+        }
+        UserRepository repository = new UserRepository(dataSource);
+        UserServiceWithRepository plain = new UserServiceWithRepository(repository);
+
+        long start = System.nanoTime();
+        UsernameBloomFilter filter = UsernameBloomFilter.seededFrom(repository, BENCHMARK_ROWS * 2, 0.01);
+        long seedNanos = System.nanoTime() - start;
+        UserServiceWithRepository filtered = new UserServiceWithRepository(repository, filter);
+
+        // Warm up both paths before measuring
+        retryDuplicates(plain);
+        retryDuplicates(filtered);
+
+        long plainNanos = retryDuplicates(plain);
+        long filteredNanos = retryDuplicates(filtered);
+
+        System.out.printf("Seeding from %d users took %.0fms. Duplicate retries: failed INSERT %.2fus/op, " +
+                          "filter plus lookup %.2fus/op%n",
+            BENCHMARK_ROWS, seedNanos / 1e6,
+            plainNanos / 1e3 / BENCHMARK_RETRIES, filteredNanos / 1e3 / BENCHMARK_RETRIES);
+    }
+
+    private static long retryDuplicates(UserServiceWithRepository service) {
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_RETRIES; i++) {
+            String username = "user" + (i % BENCHMARK_ROWS + 1);
+            try {
+                service.registerUser(username, username + "@example.com");
+                fail("Duplicate registered: " + username);
+            } catch (IllegalArgumentException | UserRepository.RepositoryException expected) {
+                // Rejected by the pre-check or by the unique constraint
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}